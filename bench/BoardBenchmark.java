@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Class: BoardBenchmark.java
+ *
+ *  This Class - Microbenchmarks of the Board methods that the A* search in Solver calls once or more per node:
+ *  neighbors(), the Manhattan distance computed from scratch vs. from the parent board (calcManhattan() vs.
+ *  calcManhattanEfficient()), and equals(). See bench/README.md for how to run them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	@Param({"puzzle30.txt", "puzzle50.txt"})
+	public String puzzle;		//A 3 x 3 and a 4 x 4 puzzle file in the directory that the benchmarks are run from
+
+	private Board board;		//The puzzle itself
+	private Board neighbor;		//One of its neighbors, whose parent board is the puzzle
+	private Board copy;			//Equal to the puzzle, but a different object
+
+	@Setup
+	public void setUp() throws IOException {
+		board = PuzzleReader.read(Paths.get(puzzle));
+		neighbor = board.neighbors().iterator().next();
+		copy = PuzzleReader.read(Paths.get(puzzle));
+		board.manhattan();		//So that calcManhattanEfficient() finds the parent's distance already computed
+	}
+
+	@Benchmark
+	public void neighbors(Blackhole blackhole) {
+		for (Board b : board.neighbors()) blackhole.consume(b);
+	}
+
+	@Benchmark
+	public int manhattan() {
+		return neighbor.calcManhattan();
+	}
+
+	@Benchmark
+	public int manhattanEfficient() {
+		return neighbor.calcManhattanEfficient();
+	}
+
+	@Benchmark
+	public boolean equalsEqual() {
+		return board.equals(copy);
+	}
+
+	@Benchmark
+	public boolean equalsNotEqual() {
+		return board.equals(neighbor);
+	}
+}
@@ -0,0 +1,54 @@
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Class: MinPQBenchmark.java
+ *
+ *  This Class - Benchmarks MinPQ, the binary heap behind Solver's A* search, holding a steady no. of keys: each
+ *  operation inserts one key and deletes the min., as a search does once it has grown its frontier. The keys are
+ *  created up front, so that only the heap's own work (and its allocations, if any) are measured.
+ *  See bench/README.md for how to run it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinPQBenchmark {
+	private static final int NO_OF_KEYS = 1 << 16;	//Inserted over and over, in this order
+
+	@Param({"1024", "1048576"})
+	public int size;			//No. of keys in the heap between operations
+
+	private MinPQ<Integer> pq;
+	private Integer[] keys;
+	private int next;			//Index of the next key to insert
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		keys = new Integer[NO_OF_KEYS];
+		for (int i = 0; i < keys.length; i++) keys[i] = random.nextInt(100);	//Small, like the f-values of a search
+		pq = new MinPQ<Integer>();
+		for (int i = 0; i < size; i++) pq.insert(keys[i & (NO_OF_KEYS - 1)]);
+		next = size;
+	}
+
+	@Benchmark
+	public Integer insertDelMin() {
+		pq.insert(keys[next++ & (NO_OF_KEYS - 1)]);
+		return pq.delMin();
+	}
+}
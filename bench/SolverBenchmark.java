@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Class: SolverBenchmark.java
+ *
+ *  This Class - Benchmarks solving whole puzzles from the puzzle*.txt files, from the Board to the min. no. of moves,
+ *  for each algorithm and heuristic given. Unlike the time that Solver.main() prints, this leaves out JVM startup,
+ *  reading the file, loading the heuristic's tables and printing the solution. nodesPerSecond() runs the same
+ *  searches, but reports the boards expanded per second (see SearchStats.java) as the "expanded" counter.
+ *  See bench/README.md for how to run it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SolverBenchmark {
+	@Param({"puzzle30.txt", "puzzle40.txt", "puzzle45.txt", "puzzle50.txt"})
+	public String puzzle;		//A puzzle file in the directory that the benchmarks are run from
+
+	@Param({"ASTAR", "BUCKET_ASTAR", "IDASTAR"})
+	public String algorithm;	//See Solver.Algorithm
+
+	@Param({"MANHATTAN", "LINEAR"})
+	public String heuristic;	//See Solver.heuristicFor()
+
+	private Board initial;
+	private Solver.Algorithm searchAlgorithm;
+	private Heuristic searchHeuristic;		//Created once, since a Heuristic never changes
+
+	@Setup
+	public void setUp() throws IOException {
+		initial = PuzzleReader.read(Paths.get(puzzle));
+		searchAlgorithm = Solver.Algorithm.valueOf(algorithm);
+		searchHeuristic = Solver.heuristicFor(heuristic, initial.dimension());
+	}
+
+	/**
+	 * Inner class. The boards expanded by the searches of a benchmark, reported by JMH per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Nodes {
+		public long expanded;
+	}
+	//end public static class Nodes
+
+	@Benchmark
+	public int solve() {
+		return new Solver(initial, searchAlgorithm, searchHeuristic).moves();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public int nodesPerSecond(Nodes nodes) {
+		Solver solver = new Solver(initial, searchAlgorithm, searchHeuristic);
+		nodes.expanded += solver.stats().expanded();
+		return solver.moves();
+	}
+}
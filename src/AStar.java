@@ -0,0 +1,149 @@
+/** Class: AStar.java
+ *
+ *  This Class - The A* search used by Solver for boards up to 4 x 4. It works like Solver.solve(),
+ *  but every position is a packed long (see PackedBoard.java) instead of a Board object, and the heuristic estimate
+ *  of each neighbor is updated from its parent's rather than computed from scratch.
+ *  The heuristic is pluggable (see Heuristic.java); ManhattanHeuristic gives the same estimates as Board.manhattan().
+ *
+ *  The open boards are kept in an OpenList: by default a HeapOpenList, where a board reached again by a shorter
+ *  path has its priority lowered in place instead of being inserted a second time, or else a BucketOpenList.
+ *  Either way, the open list never holds more than one live entry per board. No search node objects are created
+ *  at all: the fewest moves to each board and the last of those moves are kept in a LongHashTable, and the solution
+ *  is read back from the goal by undoing one move after another.
+ */
+public class AStar {
+	private final int N;				//The dimension N of the N x N board
+	private final Heuristic heuristic;	//Estimates the no. of moves left
+	private final long start;			//The given board, packed
+	private final OpenList open;		//The boards reached but not yet expanded
+	private final SearchStats stats = new SearchStats();	//Counts the work done by solve()
+	private final SearchBudget budget;	//Limits the work done by solve()
+
+	/**
+	 * 2-arg constructor. Keeps the open boards in a HeapOpenList.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 */
+	public AStar(Board start, Heuristic heuristic) {
+		this(start, heuristic, new HeapOpenList());
+	}
+
+	/**
+	 * 3-arg constructor. No limits on the search.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param open an empty open list to keep the open boards in
+	 */
+	public AStar(Board start, Heuristic heuristic, OpenList open) {
+		this(start, heuristic, open, new SearchBudget());
+	}
+
+	/**
+	 * 4-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param open an empty open list to keep the open boards in
+	 * @param budget the limits on the search
+	 */
+	public AStar(Board start, Heuristic heuristic, OpenList open, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		if (!open.isEmpty()) throw new IllegalArgumentException("The open list must be empty");
+		this.heuristic = heuristic;
+		this.start = start.key();
+		this.open = open;
+		this.budget = budget;
+	}
+
+	/**
+	 * Method: solve
+	 *         Runs A* on the given board.
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if the budget runs out first
+	 */
+	public byte[] solve() {
+		stats.start();
+		budget.start();
+		try {
+			return search();	//custom method
+		}
+		finally {
+			stats.stop();
+		}
+	}
+
+	/**
+	 * Method: search
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 */
+	private byte[] search() {
+		long goal = PackedBoard.goal(N);
+
+		/* The fewest moves with which each board has been reached so far << 3, | the direction of the last of those
+		 * moves + 1 (0 for the given board). See Solver.solve(). */
+		LongHashTable reached = new LongHashTable();
+		reached.put(start, 0);
+
+		/* The heuristic state (see Heuristic.java) of each board in the open list. */
+		LongHashTable heuristicStates = new LongHashTable();
+		int startState = heuristic.init(start);
+		stats.heuristicEvaluations++;
+		heuristicStates.put(start, startState);
+
+		open.insert(start, 0, heuristic.value(startState));
+		long current = open.delMin();
+		int bound = 0;		//The highest estimated total cost expanded so far. No solution is shorter.
+
+		while (current != goal) {
+			int distance = (reached.get(current, 0) >>> 3) + 1;
+			int currentState = heuristicStates.get(current, 0);
+			heuristicStates.remove(current);	//Only needed while the board is in the open list
+			int blank = PackedBoard.blankIndex(current, N);
+			if (SearchBudget.isDue(++stats.expanded)) {
+				bound = Math.max(bound, distance - 1 + heuristic.value(currentState));
+				budget.check(stats.expanded, bound);
+			}
+
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				int target = Board.blankTarget(blank, direction, N);
+				if (target < 0) continue;
+
+				long neighbor = PackedBoard.move(current, blank, target);
+				stats.generated++;
+				if ((reached.get(neighbor, Integer.MAX_VALUE) >>> 3) <= distance) {	//Not a shorter path
+					stats.duplicates++;
+					continue;
+				}
+				reached.put(neighbor, distance << 3 | (direction + 1));
+
+				int state = heuristic.update(currentState, current, blank, target);
+				stats.heuristicEvaluations++;
+				open.insert(neighbor, distance, heuristic.value(state));
+				heuristicStates.put(neighbor, state);	//Unchanged if the board was already open
+			}
+			stats.frontierSize(open.size());
+			current = open.delMin();
+		}
+		stats.foundSolution();
+
+		/* Walk back from the goal to the original board, collecting the moves in reverse order. */
+		byte[] moves = new byte[reached.get(goal, 0) >>> 3];
+		int blank = PackedBoard.blankIndex(goal, N);
+		for (int i = moves.length - 1; i >= 0; i--) {
+			int direction = (reached.get(current, 0) & 7) - 1;
+			moves[i] = (byte)direction;
+			int previousBlank = Board.blankTarget(blank, direction ^ 1, N);	//Undo the move
+			current = PackedBoard.move(current, blank, previousBlank);
+			blank = previousBlank;
+		}
+		return moves;
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by solve(), once it has returned
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+}
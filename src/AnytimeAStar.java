@@ -0,0 +1,329 @@
+import java.util.Arrays;
+
+/** Class: AnytimeAStar.java
+ *
+ *  This Class - An anytime search for boards up to 4 x 4: Anytime Repairing A* (ARA*, see Likhachev, Gordon and Thrun,
+ *  "ARA*: Anytime A* with Provable Bounds on Sub-Optimality", 2003). It finds a first solution quickly with weighted
+ *  A*, which orders the open boards by g + w * h instead of g + h, so that it heads for the goal greedily. The
+ *  solution has at most w times the fewest moves possible. It then lowers w step by step, searching again each time
+ *  for a shorter solution, until w is 1 and the solution is optimal.
+ *
+ *  Each search reuses the work of the ones before: the fewest moves found to each board are kept, and a board whose
+ *  moves went down after it had already been expanded in the current search is only expanded again in the next one.
+ *  Boards that could not lead to a solution shorter than the best so far are never opened.
+ *  After each search, the bound on how far the best solution can be from the optimal one is its length divided by the
+ *  lowest g + h of any board left to expand, if that is lower than w.
+ *
+ *  A SolutionListener is told about each shorter solution or tighter bound as soon as it is found. If the budget runs
+ *  out once a solution has been found, solve() returns the best one so far instead of throwing (see bound()).
+ */
+public class AnytimeAStar {
+	static final double DEFAULT_WEIGHT = 2.5;	//The weight of the first search
+	static final double DEFAULT_STEP = 0.5;		//How much the weight is lowered by after each search
+	private static final int INFINITY = Integer.MAX_VALUE;
+
+	/**
+	 * Tells a caller about each better solution as soon as it is found, e.g. to use it while the search goes on.
+	 */
+	public interface SolutionListener {
+
+		/**
+		 * Method: improved
+		 * @param moves the best solution so far, as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+		 * @param bound no solution has fewer than moves.length / bound moves. 1 if the solution is optimal.
+		 */
+		void improved(byte[] moves, double bound);
+	}
+
+	private final int N;				//The dimension N of the N x N board
+	private final Heuristic heuristic;	//Estimates the no. of moves left
+	private final long start;			//The given board, packed
+	private final long goal;			//The packed goal board
+	private final int firstWeight;		//The weight of the first search, in hundredths
+	private final int step;				//How much the weight is lowered by after each search, in hundredths
+	private final SearchBudget budget;	//Limits the work done by solve()
+	private final SearchStats stats = new SearchStats();	//Counts the work done by solve()
+
+	/* The fewest moves with which each board has been reached so far << 3, | the direction of the last of those
+	 * moves + 1 (0 for the given board), as in AStar.java. */
+	private final LongHashTable reached = new LongHashTable();
+	private final LongHashTable heuristicStates = new LongHashTable();	//Of every board reached
+	private final LongHashTable closed = new LongHashTable();	//The boards expanded by the current search
+	private LongIndexMinPQ open = new LongIndexMinPQ();	//The boards to expand, by g + w * h
+	private long[] inconsistent = new long[16];	//Boards reached with fewer moves after the current search expanded them
+	private int inconsistentSize;
+	private int weight;					//The weight of the current search, in hundredths
+	private int cost = INFINITY;		//The no. of moves of the best solution so far
+	private byte[] best;				//The best solution so far
+	private double bound = Double.POSITIVE_INFINITY;	//The proven bound on the best solution (see bound())
+
+	/**
+	 * 2-arg constructor. Starts with DEFAULT_WEIGHT, lowered by DEFAULT_STEP after each search, with no limits.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 */
+	public AnytimeAStar(Board start, Heuristic heuristic) {
+		this(start, heuristic, DEFAULT_WEIGHT, DEFAULT_STEP, new SearchBudget());
+	}
+
+	/**
+	 * 5-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param weight the weight w of the first search, from 1 to 100. The higher, the faster the first solution
+	 *               is found, and the longer it may be.
+	 * @param step how much w is lowered by after each search, from 0.01 up
+	 * @param budget the limits on the search
+	 */
+	public AnytimeAStar(Board start, Heuristic heuristic, double weight, double step, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		if (!(weight >= 1 && weight <= 100)) throw new IllegalArgumentException("The weight must be from 1 to 100");
+		if (!(step >= 0.01)) throw new IllegalArgumentException("The step must be at least 0.01");
+		this.heuristic = heuristic;
+		this.start = start.key();
+		this.goal = PackedBoard.goal(N);
+		this.firstWeight = (int)Math.round(weight * 100);
+		this.step = (int)Math.round(step * 100);
+		this.budget = budget;
+	}
+
+	/**
+	 * Method: solve
+	 *         Searches until the solution is optimal, or the budget runs out.
+	 * @return the best solution found, as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if the budget runs out before any solution is found
+	 */
+	public byte[] solve() {
+		return solve(null);
+	}
+
+	/**
+	 * Method: solve
+	 *         Searches until the solution is optimal, or the budget runs out, telling the given listener about each
+	 *         better solution on the way. Can only be called once.
+	 * @param listener the listener, or null for none
+	 * @return the best solution found, as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if the budget runs out before any solution is found
+	 */
+	public byte[] solve(SolutionListener listener) {
+		stats.start();
+		budget.start();
+		try {
+			search(listener);	//custom method
+		}
+		catch (BudgetExceededException e) {
+			if (cost < INFINITY && (best == null || cost < best.length)) {	//The goal was reached by a shorter path
+				int lower = lowerBound();	//custom method. Still holds, and is cheap to find.
+				best = pathToGoal();		//custom method
+				found(listener, (lower == 0) ? 1 : Math.max(1, Math.min(bound, (double)cost / lower)));	//custom method
+			}
+			if (best == null) throw e;	//Otherwise, the best solution so far is the answer
+		}
+		finally {
+			stats.stop();
+		}
+		return best;
+	}
+
+	/**
+	 * Method: search
+	 *         Searches with lower and lower weights until the best solution is proven optimal.
+	 */
+	private void search(SolutionListener listener) {
+		int startState = heuristic.init(start);
+		stats.heuristicEvaluations++;
+		reached.put(start, 0);
+		heuristicStates.put(start, startState);
+		weight = firstWeight;
+		if (start == goal) cost = 0;
+		open.insert(start, priority(0, heuristic.value(startState)));	//custom method
+
+		while (true) {
+			improvePath();		//custom method
+			if (best == null || best.length > cost) {		//A shorter solution has been found
+				best = pathToGoal();	//custom method
+				found(listener, Math.min(bound, weight / 100.0));	//custom method. Holds once the search is complete.
+			}
+			int lowest = reopen();		//custom method. The lowest g + h left to expand.
+			double newBound = (lowest == INFINITY) ? 1 : Math.max(1, Math.min(weight / 100.0, (double)cost / lowest));
+			if (newBound < bound) found(listener, newBound);	//The bound on the best solution is tighter
+			if (bound == 1) return;
+			weight = Math.max(100, weight - step);
+			open = rekey(open);		//custom method
+		}
+	}
+
+	/**
+	 * Method: found
+	 *         Records the bound on the best solution, and tells the listener about it.
+	 * @param listener the listener, or null for none
+	 * @param newBound the bound
+	 */
+	private void found(SolutionListener listener, double newBound) {
+		bound = newBound;
+		stats.foundSolution();
+		if (listener != null) listener.improved(best.clone(), bound);
+	}
+
+	/**
+	 * Method: improvePath
+	 *         Runs weighted A* with the current weight until no open board is more promising than the goal.
+	 */
+	private void improvePath() {
+		closed.clear();
+		while (!open.isEmpty() && (long)(open.minPriority() >>> 8) < (long)cost * 100) {
+			long current = open.delMin();
+			closed.put(current, 1);
+			int distance = (reached.get(current, 0) >>> 3) + 1;
+			int currentState = heuristicStates.get(current, 0);
+			int blank = PackedBoard.blankIndex(current, N);
+			if (SearchBudget.isDue(++stats.expanded)) budget.check(stats.expanded, lowerBound());
+
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				int target = Board.blankTarget(blank, direction, N);
+				if (target < 0) continue;
+
+				long neighbor = PackedBoard.move(current, blank, target);
+				stats.generated++;
+				if ((reached.get(neighbor, Integer.MAX_VALUE) >>> 3) <= distance) {	//Not a shorter path
+					stats.duplicates++;
+					continue;
+				}
+				int state;
+				if (heuristicStates.containsKey(neighbor)) state = heuristicStates.get(neighbor, 0);
+				else {
+					state = heuristic.update(currentState, current, blank, target);
+					stats.heuristicEvaluations++;
+					heuristicStates.put(neighbor, state);
+				}
+				int estimate = heuristic.value(state);
+				if (distance + estimate >= cost) continue;	//Can't lead to a shorter solution
+				reached.put(neighbor, distance << 3 | (direction + 1));
+
+				if (neighbor == goal) cost = distance;
+				else if (closed.containsKey(neighbor)) addInconsistent(neighbor);	//custom method
+				else if (open.contains(neighbor)) open.decreaseKey(neighbor, priority(distance, estimate));
+				else open.insert(neighbor, priority(distance, estimate));
+			}
+			stats.frontierSize(open.size());
+		}
+	}
+
+	/**
+	 * Method: reopen
+	 *         Moves the inconsistent boards back into the open list, and drops the open boards that could no longer
+	 *         lead to a shorter solution.
+	 * @return the lowest g + h of the open boards, or INFINITY if there are none
+	 */
+	private int reopen() {
+		int lowest = INFINITY;
+		LongIndexMinPQ kept = new LongIndexMinPQ(open.size() + inconsistentSize);
+		for (int moved = 1; !open.isEmpty(); moved++) {
+			lowest = Math.min(lowest, keep(open.delMin(), kept));	//custom method
+			if (SearchBudget.isDue(moved)) budget.check(stats.expanded, lowerBound());	//The open list may be large
+		}
+		for (int i = 0; i < inconsistentSize; i++) {
+			lowest = Math.min(lowest, keep(inconsistent[i], kept));
+			if (SearchBudget.isDue(i + 1)) budget.check(stats.expanded, lowerBound());
+		}
+		inconsistentSize = 0;
+		open = kept;
+		return lowest;
+	}
+
+	/**
+	 * Method: keep
+	 *         Adds the given board to the given open list, unless it could not lead to a shorter solution or is
+	 *         already in it.
+	 * @return the board's g + h if it was added, or INFINITY
+	 */
+	private int keep(long board, LongIndexMinPQ kept) {
+		int distance = reached.get(board, 0) >>> 3;
+		int estimate = heuristic.value(heuristicStates.get(board, 0));
+		if (distance + estimate >= cost || kept.contains(board)) return INFINITY;
+		kept.insert(board, priority(distance, estimate));
+		return distance + estimate;
+	}
+
+	/**
+	 * Method: rekey
+	 * @return the given open list, ordered by the current weight
+	 */
+	private LongIndexMinPQ rekey(LongIndexMinPQ pq) {
+		LongIndexMinPQ rekeyed = new LongIndexMinPQ(pq.size());
+		for (int moved = 1; !pq.isEmpty(); moved++) {
+			long board = pq.delMin();
+			rekeyed.insert(board, priority(reached.get(board, 0) >>> 3, heuristic.value(heuristicStates.get(board, 0))));
+			if (SearchBudget.isDue(moved)) budget.check(stats.expanded, lowerBound());
+		}
+		return rekeyed;
+	}
+
+	/**
+	 * Method: priority
+	 * @return g + w * h in hundredths, with h as tiebreaker
+	 */
+	private int priority(int distanceSoFar, int estimate) {
+		return (distanceSoFar * 100 + weight * estimate) << 8 | estimate;
+	}
+
+	/**
+	 * Method: addInconsistent
+	 *         Records a board to expand again in the next search. A board may be recorded more than once.
+	 */
+	private void addInconsistent(long board) {
+		if (inconsistentSize == inconsistent.length) inconsistent = Arrays.copyOf(inconsistent, 2 * inconsistentSize);
+		inconsistent[inconsistentSize++] = board;
+	}
+
+	/**
+	 * Method: lowerBound
+	 * @return the fewest moves that a solution could have, as far as the search has got. Once solve() has returned,
+	 *         the length of its solution divided by bound(), rounded up.
+	 */
+	public int lowerBound() {
+		if (best != null) return (int)Math.ceil(best.length / bound - 1e-9);	//Not rounded up past an exact quotient
+		return heuristic.value(heuristicStates.get(start, 0));
+	}
+
+	/**
+	 * Method: pathToGoal
+	 * @return the moves of the best path to the goal found so far
+	 */
+	private byte[] pathToGoal() {
+		/* Walk back from the goal to the original board, collecting the moves in reverse order. A board on the way
+		 * may have been reached with fewer moves since, so the path can be shorter than the goal's no. of moves. */
+		byte[] moves = new byte[cost];
+		int i = moves.length;
+		long current = goal;
+		int blank = PackedBoard.blankIndex(goal, N);
+		while (current != start) {
+			int direction = (reached.get(current, 0) & 7) - 1;
+			moves[--i] = (byte)direction;
+			int previousBlank = Board.blankTarget(blank, direction ^ 1, N);	//Undo the move
+			current = PackedBoard.move(current, blank, previousBlank);
+			blank = previousBlank;
+		}
+		cost = moves.length - i;
+		return Arrays.copyOfRange(moves, i, moves.length);
+	}
+
+	/**
+	 * Method: bound
+	 * @return how far the solution returned by solve() may be from the optimal one: no solution has fewer than
+	 *         its length / bound() moves. 1 if it is optimal.
+	 */
+	public double bound() {
+		return bound;
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by solve(), once it has returned. The time to the first solution is that of the first
+	 *         search, and the other counts add up all the searches.
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+}
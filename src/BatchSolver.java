@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Class: BatchSolver.java
+ *
+ *  This Class - Solves many puzzle files in a single run, several at a time on a fixed no. of threads, and prints
+ *  one line per puzzle. Unlike running Solver once per file, the JVM starts up only once, and a heuristic's tables
+ *  (see PatternDatabase.java and WalkingDistance.java) are loaded only once per board dimension and then shared by
+ *  every puzzle of that dimension, since a Heuristic never changes once constructed.
+ *
+ *  Usage: BatchSolver [-algorithm=ALGORITHM] [-heuristic=HEURISTIC] [-threads=THREADS] [-timeout=MILLIS] [-nodes=NODES]
+ *                     [-bulk] [-stats] PUZZLES...
+ *  where each of PUZZLES is a puzzle file, a directory (every .txt file in it is solved), or a glob such as
+ *  "puzzle*.txt" (quoted, so that the shell doesn't expand it). The algorithm and heuristic are the same as Solver's.
+ *
+ *  The lines are printed in the order of the files, each as soon as its puzzle and all of the ones before it have
+ *  been solved. Each line is tab-separated: the file, then either the min. no. of moves, the moves (see
+ *  Solver.moveString()) and the time taken in milliseconds; or "bounded", the no. of moves, at most how many times
+ *  the min. no. of moves that is, the fewest moves that a solution could have, the moves and the time taken, if an
+ *  ANYTIME search ran out of time before it could prove its best solution optimal (e.g. "bounded", 67, 1.91, 35,
+ *  ...); or "unsolvable"; or "limit" and the fewest moves that a solution could have, if the puzzle's search ran
+ *  for MILLIS milliseconds or expanded NODES boards without finding one (see SearchBudget.java); or "error" and a
+ *  message. An argument that matches no puzzle file gets such an error line of its own, before the puzzles' lines.
+ *  With -stats, every line but an error ends with the work done by the puzzle's search, as JSON (see
+ *  SearchStats.java).
+ *
+ *  With -bulk, each of PUZZLES is instead a file of many puzzles, one per line or in the binary format (see
+ *  PuzzleStream.java), or "-" for standard input. The puzzles are read only as fast as they are solved, so a corpus
+ *  of any size is solved in a bounded amount of memory, and each line starts with the file and the puzzle's line
+ *  (or, for a binary file, its no.) in place of a puzzle file, e.g. "corpus.txt:12".
+ */
+public class BatchSolver {
+	private final Solver.Algorithm algorithm;
+	private final String heuristicName;		//See Solver.heuristicFor(), or null for the Manhattan distance
+	private final int threads;				//No. of puzzles solved at a time
+	private final boolean printStats;		//Whether each line ends with the search's stats
+	private final long maxMillis;			//The longest each search may run for, or 0 for no limit
+	private final long maxNodes;			//The most boards each search may expand, or 0 for no limit
+	private static final int WINDOW_PER_THREAD = 4;	//Max. no. of puzzles in a bulk file read ahead, per thread
+	private final ConcurrentMap<Integer, Heuristic> heuristics = new ConcurrentHashMap<Integer, Heuristic>();	//Shared, by dimension
+
+	/**
+	 * 3-arg constructor.
+	 * @param algorithm the search algorithm to use
+	 * @param heuristicName the heuristic to use (see Solver.heuristicFor()), or null for the Manhattan distance
+	 * @param threads the no. of puzzles to solve at a time
+	 */
+	public BatchSolver(Solver.Algorithm algorithm, String heuristicName, int threads) {
+		this(algorithm, heuristicName, threads, false);
+	}
+
+	/**
+	 * 4-arg constructor.
+	 * @param algorithm the search algorithm to use
+	 * @param heuristicName the heuristic to use (see Solver.heuristicFor()), or null for the Manhattan distance
+	 * @param threads the no. of puzzles to solve at a time
+	 * @param printStats whether each line ends with the work done by the search, as JSON (see SearchStats.toJson())
+	 */
+	public BatchSolver(Solver.Algorithm algorithm, String heuristicName, int threads, boolean printStats) {
+		this(algorithm, heuristicName, threads, printStats, 0, 0);
+	}
+
+	/**
+	 * 6-arg constructor.
+	 * @param algorithm the search algorithm to use
+	 * @param heuristicName the heuristic to use (see Solver.heuristicFor()), or null for the Manhattan distance
+	 * @param threads the no. of puzzles to solve at a time
+	 * @param printStats whether each line ends with the work done by the search, as JSON (see SearchStats.toJson())
+	 * @param maxMillis the longest each search may run for, in milliseconds, or 0 for no limit
+	 * @param maxNodes the most boards each search may expand, or 0 for no limit
+	 */
+	public BatchSolver(Solver.Algorithm algorithm, String heuristicName, int threads, boolean printStats,
+			long maxMillis, long maxNodes) {
+		if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+		if (maxMillis < 0 || maxNodes < 0) throw new IllegalArgumentException("Limits can't be negative");
+		this.algorithm = algorithm;
+		this.heuristicName = heuristicName;
+		this.threads = threads;
+		this.printStats = printStats;
+		this.maxMillis = maxMillis;
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Method: heuristicFor
+	 *         Loads the heuristic for the given dimension the first time it is needed, and returns the same one after.
+	 *         Boards larger than 4 x 4 always get the Manhattan distance (see Solver), so that a mixed batch of
+	 *         puzzles can be solved with one heuristic for the rest.
+	 * @param N the dimension of the board
+	 * @return the heuristic, or null for the Manhattan distance
+	 * @throws IOException if a file of tables can't be loaded or saved
+	 */
+	private Heuristic heuristicFor(int N) throws IOException {
+		if (heuristicName == null || N > PackedBoard.MAX_DIMENSION) return null;
+		try {
+			return heuristics.computeIfAbsent(N, n -> {	//Only puzzles of this dimension wait while its tables load
+				try {
+					return Solver.heuristicFor(heuristicName, n);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Method: solve
+	 *         Solves a single puzzle file.
+	 * @param file the puzzle file
+	 * @return the line to print for it (see above)
+	 */
+	public String solve(Path file) {
+		try {
+			return solve(file.toString(), PuzzleReader.read(file));	//custom method
+		}
+		catch (IOException | RuntimeException e) {
+			return file + "\terror\t" + e;
+		}
+	}
+
+	/**
+	 * Method: solve
+	 *         Solves a single puzzle.
+	 * @param label what the line starts with in place of a puzzle file
+	 * @param initial the puzzle
+	 * @return the line to print for it (see above)
+	 */
+	public String solve(String label, Board initial) {
+		long startTime = System.currentTimeMillis();
+		try {
+			SearchBudget budget = new SearchBudget(maxMillis, maxNodes);
+			Solver solver = new Solver(initial, algorithm, heuristicFor(initial.dimension()), budget);
+			String stats = printStats ? "\t" + solver.stats().toJson() : "";
+			if (solver.isBudgetExceeded()) return label + "\tlimit\t" + solver.lowerBound() + stats;
+			if (!solver.isSolvable()) return label + "\tunsolvable" + stats;
+			long ms = System.currentTimeMillis() - startTime;
+			if (solver.suboptimalityBound() > 1) {	//An ANYTIME search ran out of time before it could prove its best optimal
+				return label + String.format(Locale.ROOT, "\tbounded\t%d\t%.2f\t%d\t", solver.moves(),
+						solver.suboptimalityBound(), solver.lowerBound()) + solver.moveString() + "\t" + ms + stats;
+			}
+			return label + "\t" + solver.moves() + "\t" + solver.moveString() + "\t" + ms + stats;
+		}
+		catch (IOException | RuntimeException | OutOfMemoryError e) {	//Only this puzzle's search is lost
+			return label + "\terror\t" + e;
+		}
+	}
+
+	/**
+	 * Method: solveAll
+	 *         Solves the given puzzle files on a pool of threads, printing a line for each to standard output.
+	 * @param files the puzzle files
+	 * @throws InterruptedException if interrupted while waiting for the puzzles to be solved
+	 */
+	public void solveAll(List<Path> files) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>(files.size());
+			for (Path file : files) results.add(executor.submit(() -> solve(file)));	//custom method
+			for (Future<String> result : results) StdOut.println(resultOf(result));	//custom method
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method: solveBulk
+	 *         Solves the puzzles in a file of many puzzles on a pool of threads, printing a line for each to standard
+	 *         output. At most a few puzzles per thread are read ahead of the oldest one still being solved, so the
+	 *         file is never held in memory as a whole.
+	 * @param file a file of puzzles (see PuzzleStream.java), or "-" for standard input
+	 * @throws IOException if the file can't be read
+	 * @throws InterruptedException if interrupted while waiting for the puzzles to be solved
+	 */
+	public void solveBulk(String file) throws IOException, InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Deque<Future<String>> window = new ArrayDeque<Future<String>>();	//Solved or being solved, in order
+		try (PuzzleStream puzzles = PuzzleStream.open(file)) {
+			while (puzzles.hasNext()) {
+				if (window.size() == threads * WINDOW_PER_THREAD) StdOut.println(resultOf(window.removeFirst()));	//custom method
+				String label;
+				Board initial;
+				try {
+					initial = puzzles.next();
+					label = file + ":" + puzzles.count();
+				}
+				catch (IllegalArgumentException e) {	//Just this puzzle is skipped
+					window.addLast(CompletableFuture.completedFuture(file + ":" + puzzles.count() + "\terror\t" + e));
+					continue;
+				}
+				window.addLast(executor.submit(() -> solve(label, initial)));
+			}
+			while (!window.isEmpty()) StdOut.println(resultOf(window.removeFirst()));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method: resultOf
+	 * @return the line to print for a puzzle, once it has been solved
+	 */
+	private static String resultOf(Future<String> result) throws InterruptedException {
+		try {
+			return result.get();
+		}
+		catch (ExecutionException e) {	//solve() catches what it can, so this is an Error
+			throw new IllegalStateException("Failed to solve a puzzle", e.getCause());
+		}
+	}
+
+	/**
+	 * Method: expand
+	 * @param pattern a puzzle file, a directory, or a glob such as "puzzle*.txt" (matched against file names only)
+	 * @return the matching files, sorted by name
+	 * @throws IOException if a directory can't be read
+	 */
+	static List<Path> expand(String pattern) throws IOException {
+		Path path = Paths.get(pattern);
+		List<Path> files = new ArrayList<Path>();
+		if (Files.isRegularFile(path)) {
+			files.add(path);
+			return files;
+		}
+
+		boolean isDirectory = Files.isDirectory(path);
+		Path directory = isDirectory ? path : path.getParent();	//null for a glob in the current directory
+		String glob = isDirectory ? "*.txt" : path.getFileName().toString();
+		PathMatcher matcher = path.getFileSystem().getPathMatcher("glob:" + glob);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory == null ? Paths.get(".") : directory)) {
+			for (Path file : stream) {
+				Path name = file.getFileName();
+				if (!matcher.matches(name)) continue;
+				Path match = (directory == null) ? name : directory.resolve(name);
+				if (Files.isRegularFile(match)) files.add(match);
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	/**
+	 * Method: main
+	 * @param args see the usage above
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Solver.Algorithm algorithm = Solver.Algorithm.ASTAR;
+		String heuristicName = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean bulk = false, printStats = false;
+		long maxMillis = 0, maxNodes = 0;
+		List<String> patterns = new ArrayList<String>();
+
+		for (String arg : args) {
+			if (arg.startsWith("-algorithm=")) algorithm = Solver.Algorithm.valueOf(arg.substring(11).toUpperCase());
+			else if (arg.startsWith("-heuristic=")) heuristicName = arg.substring(11);
+			else if (arg.startsWith("-threads=")) threads = Integer.parseInt(arg.substring(9));
+			else if (arg.startsWith("-timeout=")) maxMillis = Long.parseLong(arg.substring(9));
+			else if (arg.startsWith("-nodes=")) maxNodes = Long.parseLong(arg.substring(7));
+			else if (arg.equals("-bulk")) bulk = true;
+			else if (arg.equals("-stats")) printStats = true;
+			else patterns.add(arg);
+		}
+		if (patterns.isEmpty()) {
+			System.err.println("Usage: BatchSolver [-algorithm=ALGORITHM] [-heuristic=HEURISTIC] [-threads=THREADS] "
+					+ "[-timeout=MILLIS] [-nodes=NODES] [-bulk] [-stats] PUZZLES...");
+			System.exit(1);
+		}
+
+		BatchSolver batchSolver = new BatchSolver(algorithm, heuristicName, threads, printStats, maxMillis, maxNodes);
+		if (bulk) {
+			for (String file : patterns) batchSolver.solveBulk(file);
+			return;
+		}
+		List<Path> files = new ArrayList<Path>();
+		for (String pattern : patterns) {
+			try {
+				List<Path> matches = expand(pattern);		//custom method
+				if (matches.isEmpty()) StdOut.println(pattern + "\terror\tNo puzzle files match");
+				files.addAll(matches);
+			}
+			catch (IOException e) {		//e.g. the directory of a glob doesn't exist
+				StdOut.println(pattern + "\terror\t" + e);
+			}
+		}
+		batchSolver.solveAll(files);
+	}
+}
@@ -0,0 +1,243 @@
+/** Class: BidirectionalSearch.java
+ *
+ *  This Class - A bidirectional heuristic search that "meets in the middle" (the MM algorithm of Holte, Felner,
+ *  Sharon & Sturtevant, "Bidirectional search that is guaranteed to meet in the middle", 2016).
+ *  One frontier searches forwards from the given board towards the goal, using the given heuristic. The other
+ *  searches backwards from the goal towards the given board, using the Manhattan distance to the given board.
+ *  Each frontier orders its nodes by priority max(f, 2g), so that neither one searches past the halfway point of an
+ *  optimal solution, and the frontier whose best priority is lower is expanded next.
+ *
+ *  Every board reached by a frontier is kept in that frontier's LongHashTable, along with the no. of moves it took
+ *  and the last move made. Whenever a frontier reaches a board that the other frontier has also reached, the two
+ *  paths together make a solution. The best such solution is optimal once it is no longer than the lower of the two
+ *  frontiers' best priorities.
+ */
+public class BidirectionalSearch {
+	/* A frontier's table value holds the no. of moves so far in the upper bits, then a bit that is set once the board
+	 * has been expanded, then the direction of the last move + 1 (0 for the frontier's starting board). */
+	private static final int CLOSED = 1 << 3;
+
+	private final int N;				//The dimension N of the N x N board
+	private final long start;			//The given board, packed
+	private final int startBlank;		//The index of the empty spot of the given board
+	private final Frontier forward;		//Searches from the given board
+	private final Frontier backward;	//Searches from the goal
+	private int bestLength;				//The length of the best solution found so far ("U" in the paper)
+	private long meeting;				//A board on that solution, reached by both frontiers
+	private int meetingBlank;			//The index of the empty spot of that board
+	private final SearchStats stats = new SearchStats();	//Counts the work done by both frontiers
+	private final SearchBudget budget;	//Limits the work done by both frontiers together
+
+	/**
+	 * Inner class. An entry in a frontier's priority queue.
+	 */
+	private static class Entry implements Comparable<Entry> {
+		private final long board;		//The packed board
+		private final byte blank;		//Index of the empty spot
+		private final short distanceSoFar;	//The no. of moves made so far to get to this board
+		private final short priority;	//max(f, 2g)
+		private final int heuristicState;	//See Heuristic.java
+
+		Entry(long board, int blank, int distanceSoFar, int priority, int heuristicState) {
+			this.board = board;
+			this.blank = (byte)blank;
+			this.distanceSoFar = (short)distanceSoFar;
+			this.priority = (short)priority;
+			this.heuristicState = heuristicState;
+		}
+
+		/**
+		 * Method: compareTo
+		 *         Orders by priority, then by fewest moves so far.
+		 */
+		@Override
+		public int compareTo(Entry e2) {
+			if (priority != e2.priority) return (priority < e2.priority) ? -1 : 1;
+			return Integer.compare(distanceSoFar, e2.distanceSoFar);
+		}
+	}
+	//end private static class Entry
+
+	/**
+	 * Inner class. One of the two searches.
+	 */
+	private class Frontier {
+		private final LongHashTable reached = new LongHashTable();	//Every board reached so far. See CLOSED.
+		private final MinPQ<Entry> open = new MinPQ<Entry>();
+		private final Heuristic heuristic;
+		private Frontier other;
+
+		/**
+		 * 3-arg constructor.
+		 * @param board the packed board to start from
+		 * @param blank the index of its empty spot
+		 * @param heuristic estimates the no. of moves to the other frontier's starting board
+		 */
+		Frontier(long board, int blank, Heuristic heuristic) {
+			this.heuristic = heuristic;
+			int state = heuristic.init(board);
+			stats.heuristicEvaluations++;
+			reached.put(board, 0);
+			open.insert(new Entry(board, blank, 0, heuristic.value(state), state));
+		}
+
+		/**
+		 * Method: peek
+		 *         Discards entries that have been superseded by a shorter path to the same board, or expanded already.
+		 * @return the entry with the lowest priority, or null if there are none
+		 */
+		Entry peek() {
+			while (!open.isEmpty()) {
+				Entry top = open.min();
+				int value = reached.get(top.board, -1);
+				if ((value & CLOSED) == 0 && (value >>> 4) == top.distanceSoFar) return top;
+				open.delMin();
+			}
+			return null;
+		}
+
+		/**
+		 * Method: expand
+		 *         Expands the entry with the lowest priority, i.e. the one just returned by peek().
+		 */
+		void expand() {
+			Entry current = open.delMin();
+			reached.put(current.board, reached.get(current.board, 0) | CLOSED);
+
+			int distance = current.distanceSoFar + 1;
+			stats.expanded++;
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				int target = Board.blankTarget(current.blank, direction, N);
+				if (target < 0) continue;
+
+				long neighbor = PackedBoard.move(current.board, current.blank, target);
+				stats.generated++;
+				int value = reached.get(neighbor, -1);
+				if (value >= 0 && (value >>> 4) <= distance) {	//Not a shorter path
+					stats.duplicates++;
+					continue;
+				}
+				reached.put(neighbor, distance << 4 | (direction + 1));
+
+				int state = heuristic.update(current.heuristicState, current.board, current.blank, target);
+				stats.heuristicEvaluations++;
+				int priority = Math.max(distance + heuristic.value(state), 2 * distance);
+				open.insert(new Entry(neighbor, target, distance, priority, state));
+
+				/* Has the other frontier reached this board too? */
+				int otherValue = other.reached.get(neighbor, -1);
+				if (otherValue >= 0 && distance + (otherValue >>> 4) < bestLength) {
+					bestLength = distance + (otherValue >>> 4);
+					stats.foundSolution();
+					meeting = neighbor;
+					meetingBlank = target;
+				}
+			}
+		}
+
+		/**
+		 * Method: pathTo
+		 *         Follows the last moves recorded in this frontier's table back from the given board.
+		 * @param board a packed board reached by this frontier
+		 * @param blank the index of its empty spot
+		 * @return the directions the empty spot moved, from this frontier's starting board to the given board
+		 */
+		byte[] pathTo(long board, int blank) {
+			byte[] path = new byte[reached.get(board, 0) >>> 4];
+			for (int i = path.length - 1; i >= 0; i--) {
+				int direction = (reached.get(board, 0) & 7) - 1;
+				path[i] = (byte)direction;
+				int previousBlank = Board.blankTarget(blank, direction ^ 1, N);	//Undo the move
+				board = PackedBoard.move(board, blank, previousBlank);
+				blank = previousBlank;
+			}
+			return path;
+		}
+	}
+	//end private class Frontier
+
+	/**
+	 * 2-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable.
+	 * @param heuristic the heuristic for the forward search. Must have the same dimension as the board.
+	 */
+	public BidirectionalSearch(Board start, Heuristic heuristic) {
+		this(start, heuristic, new SearchBudget());
+	}
+
+	/**
+	 * 3-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable.
+	 * @param heuristic the heuristic for the forward search. Must have the same dimension as the board.
+	 * @param budget the limits on the search, by both frontiers together
+	 */
+	public BidirectionalSearch(Board start, Heuristic heuristic, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		this.start = start.key();
+		this.startBlank = start.blankIndex();
+		this.budget = budget;
+		stats.start();
+
+		long goal = PackedBoard.goal(N);
+		this.forward = new Frontier(this.start, startBlank, heuristic);
+		this.backward = new Frontier(goal, PackedBoard.blankIndex(goal, N), new ManhattanHeuristic(start));
+		forward.other = backward;
+		backward.other = forward;
+		this.bestLength = (this.start == goal) ? 0 : Integer.MAX_VALUE;
+		this.meeting = this.start;
+		this.meetingBlank = startBlank;
+	}
+
+	/**
+	 * Method: solve
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if the budget runs out first
+	 */
+	public byte[] solve() {
+		budget.start();
+		while (true) {
+			Entry f = forward.peek(), b = backward.peek();
+			if (f == null || b == null) break;	//Can't happen for a solvable board
+
+			/* No solution shorter than the lower of the two priorities remains to be found. */
+			int lowest = Math.min(f.priority, b.priority);
+			if (bestLength <= lowest) break;
+
+			if (f.priority <= b.priority) forward.expand();
+			else backward.expand();
+			stats.frontierSize(forward.open.size() + backward.open.size());
+			if (SearchBudget.isDue(stats.expanded)) {
+				try {
+					budget.check(stats.expanded, lowest);	//No solution is shorter than the lower priority
+				}
+				catch (BudgetExceededException e) {
+					stats.stop();
+					throw e;
+				}
+			}
+		}
+		if (bestLength == 0) stats.foundSolution();	//The given board is the goal
+		if (bestLength == Integer.MAX_VALUE) throw new IllegalStateException("No solution found");
+
+		/* The forward frontier's path to the meeting board, then the backward frontier's path from it, reversed. */
+		byte[] toMeeting = forward.pathTo(meeting, meetingBlank);
+		byte[] fromGoal = backward.pathTo(meeting, meetingBlank);
+		byte[] moves = new byte[toMeeting.length + fromGoal.length];
+		System.arraycopy(toMeeting, 0, moves, 0, toMeeting.length);
+		for (int i = 0; i < fromGoal.length; i++) {
+			moves[toMeeting.length + i] = (byte)(fromGoal[fromGoal.length - 1 - i] ^ 1);	//Each move undone, in reverse order
+		}
+		stats.stop();
+		return moves;
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by both frontiers, once solve() has returned. Includes stale queue entries in the
+	 *         peak frontier, as each frontier's queue only discards them once they reach its head.
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+}
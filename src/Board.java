@@ -13,6 +13,11 @@ public class Board {
 	private int hamming, manhattan;	//hamming and manhattan distance, respectively.
 	private short indexOfEmptySpot;	//The empty space in this NxN puzzle board, denoted as block no. 0. Used short instead of int to save space.
 
+	static final int MAX_DIMENSION = (int)Math.sqrt(Short.MAX_VALUE);	//The largest N whose indexOfEmptySpot fits in a short
+
+	/* Directions in which the empty spot can move. Opposite directions differ only in the lowest bit (UP ^ 1 == DOWN). */
+	static final int UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3;
+
 	/**
 	 * 1-arg constructor.
 	 * @param blocks
@@ -20,6 +25,7 @@ public class Board {
 	public Board(int[][] blocks) {          // construct a board from an N-by-N int[][] array of blocks
 
 		N = blocks.length;
+		if (N > MAX_DIMENSION) throw new IllegalArgumentException("A board can be at most " + MAX_DIMENSION + " x " + MAX_DIMENSION);
 		grid = new char[N * N];	//to save space, we'll use a 1-D char[] array to represent the 2-D grid.
 
 		int index = 0;
@@ -96,7 +102,18 @@ public class Board {
 	 *         For example, index 0 should contain block 1.
 	 */
 	private int correctBlock (int index) {
-		if (index == grid.length - 1) return 0;	//The only exception is that block 0 should be in the last index position.
+		return correctBlock(index, N);
+	}
+
+	/**
+	 * Method: correctBlock
+	 *         Defines the goal board. Also used by PackedBoard and PatternDatabase.
+	 * @param index given index of an N x N board's grid.
+	 * @param N the dimension of the board
+	 * @return the correct block that should be in this index position.
+	 */
+	static int correctBlock (int index, int N) {
+		if (index == N * N - 1) return 0;	//The only exception is that block 0 should be in the last index position.
 		return index + 1; //As for all other blocks, each index position should contain the block no. that's greater than that position by one.
 	}
 
@@ -111,7 +128,17 @@ public class Board {
 		 * to more efficiently compute this manhattan distance. So invoke custom method. */
 		if (this.parentBoard != null) return this.calcManhattanEfficient();
 
-		/* End of base cases. Begin computation. */
+		manhattan = calcManhattan();	//custom method
+		return manhattan;
+	}
+
+	/**
+	 * Method: calcManhattan
+	 *         Computes the Manhattan distance from scratch, block by block, without looking at the parent board.
+	 *         Package-private so that it can be benchmarked against calcManhattanEfficient() (see bench/).
+	 * @return sum of all Manhattan distances between each block and their goal.
+	 */
+	int calcManhattan() {
 		int sum = 0;	//Initialize value to be returned
 
 		/* Iterate thru the grid. */
@@ -199,6 +226,31 @@ public class Board {
 		return (this.hamming() == 0);
 	}
 
+	/**
+	 * Method: isSolvable
+	 *         Every move swaps the empty spot with a block, which flips the parity of the permutation that the grid is
+	 *         (counting the empty spot as a block), and moves the empty spot one step, which flips the parity of its
+	 *         Manhattan distance from where it belongs. The goal board has an even permutation and a distance of 0,
+	 *         so a board can only be solved if the two parities are the same. (They always can be, if they are.)
+	 *         The parity of the permutation is found by counting its cycles, in O(N^2) time.
+	 * @return true if this board can be solved.
+	 */
+	public boolean isSolvable() {
+		boolean[] visited = new boolean[grid.length];
+		int swaps = 0;		//No. of swaps needed to sort the grid
+		for (int i = 0; i < grid.length; i++) {
+			/* Follow the cycle from index i: the block at i belongs at index goalIndex, and so on. */
+			int cycleLength = 0;
+			for (int j = i; !visited[j]; cycleLength++) {
+				visited[j] = true;
+				j = (grid[j] == 0) ? grid.length - 1 : grid[j] - 1;	//Where the block at j belongs
+			}
+			if (cycleLength > 0) swaps += cycleLength - 1;
+		}
+		int blankDistance = getManhattanDistance(indexOfEmptySpot, grid.length - 1);
+		return (swaps % 2) == (blankDistance % 2);
+	}
+
 	/**
 	 * Method: twin
 	 * @return a Board object that is obtained by exchanging any two adjacent blocks in the same row.
@@ -253,6 +305,46 @@ public class Board {
 		return true;
 	}
 
+	/**
+	 * Method: hashCode
+	 *         Consistent with equals(): equal boards have equal grids.
+	 */
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(grid);
+	}
+
+	/**
+	 * Method: key
+	 *         Encodes this board in a single long, 4 bits per block, for use with LongHashTable.
+	 *         Two boards of the same dimension have the same key if and only if they are equal.
+	 * @return the compact encoding of this board
+	 * @throws UnsupportedOperationException if N > 4, since the blocks would no longer fit in 4 bits each.
+	 */
+	long key() {
+		if (N > PackedBoard.MAX_DIMENSION) throw new UnsupportedOperationException("Boards larger than 4 x 4 cannot be encoded in a long");
+		return PackedBoard.pack(grid);
+	}
+
+	/**
+	 * Method: fromKey
+	 * @param key a board encoded by key() (AKA a packed board, see PackedBoard.java)
+	 * @param N the dimension of the board
+	 * @return the Board that the key encodes
+	 */
+	static Board fromKey(long key, int N) {
+		return new Board(PackedBoard.unpack(key, N));
+	}
+
+	/**
+	 * Method: fromGrid
+	 * @param grid the blocks of an N x N board, row by row, with 0 for the empty spot. Copied.
+	 * @return the Board with those blocks
+	 */
+	static Board fromGrid(char[] grid) {
+		return new Board(grid);
+	}
+
 	/**
 	 * Method: neighbors
 	 * @return a list consisting of a combination of possible board positions after a single move.
@@ -314,6 +406,72 @@ public class Board {
 		return neighbor;
 	}
 
+	/**
+	 * Method: blankTarget
+	 * @param e index of the empty spot
+	 * @param direction one of UP, DOWN, LEFT or RIGHT
+	 * @param N the dimension of the N x N board
+	 * @return the index that the empty spot would move to, or -1 if that would take it off the board.
+	 */
+	static int blankTarget(int e, int direction, int N) {
+		switch (direction) {
+			case UP:	return (e - N >= 0) ? e - N : -1;
+			case DOWN:	return (e + N < N * N) ? e + N : -1;
+			case LEFT:	return (e % N != 0) ? e - 1 : -1;
+			default:	return ((e + 1) % N != 0) ? e + 1 : -1;
+		}
+	}
+
+	/**
+	 * Method: blankIndex
+	 * @return the index position of the empty spot (block no. 0)
+	 */
+	int blankIndex() {
+		return indexOfEmptySpot;
+	}
+
+	/**
+	 * Method: blockAt
+	 * @param index an index into the 1-D grid
+	 * @return the block at that index, 0 for the empty spot. Used by GridHashTable.
+	 */
+	char blockAt(int index) {
+		return grid[index];
+	}
+
+	/**
+	 * Method: copyOfGrid
+	 * @return a copy of this board's 1-D grid, which the caller is free to modify. Used by the search engines
+	 *         that work on a single mutable grid instead of creating a new Board for every position.
+	 */
+	char[] copyOfGrid() {
+		char[] copy = new char[grid.length];
+		System.arraycopy(grid, 0, copy, 0, grid.length);
+		return copy;
+	}
+
+	/**
+	 * Method: moveBlank
+	 *         Unlike neighbors(), this does NOT disallow the previous position, and the Board returned does not
+	 *         refer back to this one. Used to replay a solution that a search engine recorded as a sequence of moves,
+	 *         and by Solver.solve(), which keeps track of the previous position by itself.
+	 * @param direction one of UP, DOWN, LEFT or RIGHT
+	 * @return the Board obtained by moving the empty spot one step in the given direction
+	 * @throws IllegalArgumentException if the move would take the empty spot off the board
+	 */
+	Board moveBlank(int direction) {
+		int swapIndex = blankTarget(indexOfEmptySpot, direction, N);
+		if (swapIndex < 0) throw new IllegalArgumentException("Illegal move " + direction + " for board:\n" + this);
+
+		char[] neighborGrid = copyOfGrid();
+		exchange(neighborGrid, indexOfEmptySpot, swapIndex);
+		Board neighbor = new Board(neighborGrid);
+		neighbor.parentBoard = this;	//Lets the neighbor use calcManhattanEfficient()
+		neighbor.manhattan();
+		neighbor.parentBoard = null;	//So that the neighbor doesn't keep this board, and all before it, reachable
+		return neighbor;
+	}
+
 	/**
 	 * Method: calcManhattanEfficient
 	 *         Exploit the fact that the difference in Manhattan distance between a parent board and this board
@@ -321,7 +479,7 @@ public class Board {
 	 *         So this method is more efficient than the manhattan() method, provided that this board has a parent.
 	 * @return the manhattan distance of the current Board, assuming that it has a parent (neighboring) board.
 	 */
-	private int calcManhattanEfficient() {
+	int calcManhattanEfficient() {
 		int ret = parentBoard.manhattan();
 		int i = this.indexOfEmptySpot;				//index of block before it moved to a neighboring position
 		int j = this.parentBoard.indexOfEmptySpot;	//index of block after moving to a neighboring position
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** Class: BucketOpenList.java
+ *
+ *  This Class - An OpenList kept in buckets rather than a heap. Estimated total costs (f) and estimates of the
+ *  moves left (h) are small ints, so there is one bucket per (f, h) pair, and each bucket is a growable array used as
+ *  a stack. insert() appends to a bucket, and delMin() pops from the first nonempty bucket, both in constant time
+ *  except for skipping over empty buckets. Along any path f never decreases for a consistent heuristic, so the
+ *  lowest nonempty f is tracked and only moves back when a board is inserted below it.
+ *
+ *  The buckets hold packed boards, so they are long arrays rather than int arrays. An entry is not removed from its
+ *  bucket when the board is inserted again with fewer moves; instead, the board's current bucket is recorded in a
+ *  LongHashTable, and delMin() skips the entries that no longer match it.
+ */
+public class BucketOpenList implements OpenList {
+	private long[][][] buckets = new long[64][][];	//buckets[f][h] holds the boards with those costs. Grown as needed.
+	private int[][] counts = new int[64][];			//counts[f][h] is the no. of entries in buckets[f][h]
+	private int[] totals = new int[64];				//totals[f] is the no. of entries with that f, stale ones included
+	private int minF;								//No entry has an f lower than this
+	private final LongHashTable current = new LongHashTable();	//Maps each board in the list to f << 16 | h
+
+	@Override
+	public void insert(long board, int distanceSoFar, int estimate) {
+		int f = distanceSoFar + estimate, h = estimate;
+		if (f >= buckets.length) {
+			int length = Math.max(f + 1, buckets.length * 2);
+			buckets = Arrays.copyOf(buckets, length);
+			counts = Arrays.copyOf(counts, length);
+			totals = Arrays.copyOf(totals, length);
+		}
+		if (buckets[f] == null) {
+			buckets[f] = new long[f + 1][];		//h can't exceed f
+			counts[f] = new int[f + 1];
+		}
+		long[] bucket = buckets[f][h];
+		if (bucket == null) bucket = buckets[f][h] = new long[16];
+		else if (counts[f][h] == bucket.length) bucket = buckets[f][h] = Arrays.copyOf(bucket, bucket.length * 2);
+
+		bucket[counts[f][h]++] = board;
+		totals[f]++;
+		if (f < minF) minF = f;
+		current.put(board, f << 16 | h);
+	}
+
+	@Override
+	public long delMin() {
+		if (current.size() == 0) throw new NoSuchElementException("Open list underflow");
+		while (true) {
+			while (totals[minF] == 0) minF++;
+			int[] count = counts[minF];
+			int h = 0;
+			while (count[h] == 0) h++;
+
+			long board = buckets[minF][h][--count[h]];
+			totals[minF]--;
+			if (current.get(board, -1) != (minF << 16 | h)) continue;	//Stale: inserted again since
+			current.remove(board);
+			return board;
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return current.size() == 0;
+	}
+
+	@Override
+	public int size() {
+		return current.size();
+	}
+}
@@ -0,0 +1,37 @@
+/** Class: BudgetExceededException.java
+ *
+ *  This Class - Thrown by a search engine when its SearchBudget runs out or is cancelled, in place of a solution.
+ */
+public class BudgetExceededException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final SearchBudget.Reason reason;	//Why the search was stopped
+	private final int bound;					//The fewest moves that a solution could have
+
+	/**
+	 * 2-arg constructor.
+	 * @param reason why the search was stopped
+	 * @param bound the fewest moves that a solution could have, as far as the search got
+	 */
+	public BudgetExceededException(SearchBudget.Reason reason, int bound) {
+		super("Search stopped (" + reason + "); no solution has fewer than " + bound + " moves");
+		this.reason = reason;
+		this.bound = bound;
+	}
+
+	/**
+	 * Method: reason
+	 * @return why the search was stopped
+	 */
+	public SearchBudget.Reason reason() {
+		return reason;
+	}
+
+	/**
+	 * Method: bound
+	 * @return the fewest moves that a solution could have, as far as the search got
+	 */
+	public int bound() {
+		return bound;
+	}
+}
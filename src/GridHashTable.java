@@ -0,0 +1,153 @@
+/** Class: GridHashTable.java
+ *
+ *  This Class - A hash table that maps boards of one dimension to primitive int values, using open addressing with
+ *  linear probing, like LongHashTable. It is for boards larger than 4 x 4, which don't fit in a long (see Board.key()).
+ *  Only the blocks of each board are stored, all in one char[] array (one block per char, as in Board itself), so
+ *  no Board, array or Integer object is kept per entry the way a java.util.HashMap<Board, Integer> would.
+ */
+public class GridHashTable {
+	private static final int MIN_CAPACITY = 16;
+
+	private final int cells;	//The no. of blocks of each board, N * N
+	private char[] grids;		//The blocks of the board in slot i are grids[i * cells] to grids[(i + 1) * cells - 1]
+	private int[] hashes;		//hashes[i] is the hash of the board in slot i
+	private int[] values;		//values[i] is the value associated with the board in slot i
+	private boolean[] used;		//used[i] is true if slot i holds a board
+	private int mask;			//capacity - 1. The capacity is always a power of 2.
+	private int size;			//No. of boards in the table
+
+	/**
+	 * 1-arg constructor.
+	 * @param N the dimension of the boards
+	 */
+	public GridHashTable(int N) {
+		this.cells = N * N;
+		allocate(MIN_CAPACITY);	//custom method
+	}
+
+	/**
+	 * Method: size
+	 * @return the no. of boards in this table
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method: get
+	 * @param board the board to look for
+	 * @param defaultValue the value to return if the board is not present
+	 * @return the value associated with the board, or defaultValue if there is none
+	 */
+	public int get(Board board, int defaultValue) {
+		int slot = slotOf(board, hash(board));	//custom method
+		return used[slot] ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * Method: put
+	 *         Associates the given value with the given board, replacing any previous value.
+	 * @param board the board. Only its blocks are copied into the table.
+	 * @param value the value
+	 */
+	public void put(Board board, int value) {
+		int hash = hash(board);
+		int slot = slotOf(board, hash);
+		if (!used[slot]) {		//New board. It goes into the empty slot that slotOf() stopped at.
+			for (int i = 0; i < cells; i++) grids[slot * cells + i] = board.blockAt(i);
+			hashes[slot] = hash;
+			used[slot] = true;
+			size++;
+		}
+		values[slot] = value;
+		if (size * 2 > used.length) resize(used.length * 2);	//Keep the load factor at or below 1/2
+	}
+
+	/**
+	 * Method: putIfLower
+	 *         Associates the given value with the given board, unless the board already has a value that is no higher.
+	 *         The same as a get() and a put(), but looks the board up only once.
+	 * @param board the board. Only its blocks are copied into the table.
+	 * @param value the value
+	 * @return true if the value was stored
+	 */
+	public boolean putIfLower(Board board, int value) {
+		int hash = hash(board);
+		int slot = slotOf(board, hash);
+		if (used[slot] && values[slot] <= value) return false;
+		if (!used[slot]) {
+			for (int i = 0; i < cells; i++) grids[slot * cells + i] = board.blockAt(i);
+			hashes[slot] = hash;
+			used[slot] = true;
+			size++;
+		}
+		values[slot] = value;
+		if (size * 2 > used.length) resize(used.length * 2);
+		return true;
+	}
+
+	/**
+	 * Method: slotOf
+	 * @return the slot that holds the board, or else the empty slot where it would be inserted
+	 */
+	private int slotOf(Board board, int hash) {
+		int slot = hash & mask;
+		while (used[slot] && !(hashes[slot] == hash && holds(slot, board))) {
+			slot = (slot + 1) & mask;	//Linear probing
+		}
+		return slot;
+	}
+
+	/**
+	 * Method: holds
+	 * @return true if the given slot holds the given board
+	 */
+	private boolean holds(int slot, Board board) {
+		int offset = slot * cells;
+		for (int i = 0; i < cells; i++) {
+			if (grids[offset + i] != board.blockAt(i)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Method: allocate
+	 * @param capacity the capacity of the new, empty arrays. Must be a power of 2.
+	 */
+	private void allocate(int capacity) {
+		grids = new char[capacity * cells];
+		hashes = new int[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Method: resize
+	 * @param capacity the new capacity. Must be a power of 2.
+	 */
+	private void resize(int capacity) {
+		char[] oldGrids = grids;
+		int[] oldHashes = hashes;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldUsed.length; i++) {
+			if (!oldUsed[i]) continue;
+			int slot = oldHashes[i] & mask;
+			while (used[slot]) slot = (slot + 1) & mask;	//The boards are all different, so just find an empty slot
+			System.arraycopy(oldGrids, i * cells, grids, slot * cells, cells);
+			hashes[slot] = oldHashes[i];
+			values[slot] = oldValues[i];
+			used[slot] = true;
+		}
+	}
+
+	/**
+	 * Method: hash
+	 * @return the hash value of the board, mixed the same way as the keys of LongHashTable
+	 */
+	private static int hash(Board board) {
+		return LongHashTable.hash(board.hashCode());
+	}
+}
@@ -0,0 +1,417 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/** Class: HashDistributedAStar.java
+ *
+ *  This Class - Hash Distributed A* (HDA*, see Kishimoto, Fukunaga & Botea, "Scalable, parallel best-first search
+ *  for optimal sequential planning", 2009). Every board has an owner among the worker threads, picked by a hash of the
+ *  packed board. Each worker keeps its own priority queue and its own LongHashTable of the boards it owns, so the
+ *  workers never share a data structure except for their inboxes. When a worker generates a board owned by another
+ *  worker, it is added to a batch for that worker, and full batches are passed on through the owner's lock-free
+ *  ConcurrentLinkedQueue.
+ *
+ *  Unlike A*, the first solution found is not necessarily the shortest, since each worker only expands its own
+ *  best board. Instead, the shortest solution found so far is shared, and every board whose estimated total cost is
+ *  not less than that is dropped. The search is over once every worker has run out of boards and no batch is still
+ *  on its way, at which point the shortest solution found is optimal.
+ *
+ *  Each worker's table holds, for each board it owns, the fewest moves with which it was reached and the last of
+ *  those moves, so the solution is read back from the goal by undoing one move after another.
+ */
+public class HashDistributedAStar {
+	private static final int BATCH = 64;		//No. of boards sent to another worker at a time
+	private static final int FLUSH_INTERVAL = 256;	//Expansions after which partly filled batches are sent anyway
+	private static final long IDLE_PARK_NANOS = 1000000;	//The longest an idle worker sleeps before looking again
+
+	private final int N;				//The dimension N of the N x N board
+	private final Heuristic heuristic;	//Estimates the no. of moves left. Shared by all workers.
+	private final long start;			//The given board, packed
+	private final int startBlank;		//The index of the empty spot of the given board
+	private final long goal;			//The packed goal board
+	private final Worker[] workers;
+	private final SearchStats stats = new SearchStats();	//The work done by every worker, added up at the end
+	private final SearchBudget budget;	//Limits the work done by every worker together
+	private final AtomicLong expanded = new AtomicLong();	//Boards expanded by every worker, CHECK_INTERVAL at a time
+	private final AtomicReference<BudgetExceededException> stopped = new AtomicReference<BudgetExceededException>();
+	private int startEstimate;			//The heuristic's estimate for the given board. No solution is shorter.
+
+	/* The shortest solution found so far. Boards whose estimated total cost is not less than this are dropped. */
+	private final AtomicInteger bestLength = new AtomicInteger(Integer.MAX_VALUE);
+
+	/* The no. of busy workers plus the no. of boards sent but not yet received. The search is over once this is 0. */
+	private final AtomicLong active = new AtomicLong();
+	private volatile boolean aborted;	//Set if a worker fails or solve() is interrupted, so that every worker stops
+
+	/**
+	 * Inner class. A search node.
+	 */
+	private static class Node implements Comparable<Node> {
+		private final long board;		//The packed board
+		private final byte blank;		//Index of the empty spot
+		private final short distanceSoFar;	//The no. of moves made so far to get to this board
+		private final int heuristicState;	//See Heuristic.java
+		private final short estimate;	//The heuristic's estimate of the no. of moves left
+
+		Node(long board, int blank, int distanceSoFar, int heuristicState, int estimate) {
+			this.board = board;
+			this.blank = (byte)blank;
+			this.distanceSoFar = (short)distanceSoFar;
+			this.heuristicState = heuristicState;
+			this.estimate = (short)estimate;
+		}
+
+		/**
+		 * Method: compareTo
+		 *         Orders by estimated total cost, with the estimate of the moves left as tiebreaker, as in AStar.
+		 */
+		@Override
+		public int compareTo(Node n2) {
+			int f1 = distanceSoFar + estimate, f2 = n2.distanceSoFar + n2.estimate;
+			if (f1 != f2) return (f1 < f2) ? -1 : 1;
+			return Integer.compare(estimate, n2.estimate);
+		}
+	}
+	//end private static class Node
+
+	/**
+	 * Inner class. One worker thread, along with the boards it owns.
+	 */
+	private class Worker implements Callable<Void> {
+		private final int id;
+		private final MinPQ<Node> open = new MinPQ<Node>();
+		/* Value: the fewest moves so far << 3 | the direction of the last move + 1 (0 for the given board) */
+		private final LongHashTable reached = new LongHashTable();
+		private final ConcurrentLinkedQueue<long[]> inbox = new ConcurrentLinkedQueue<long[]>();
+		private long[][] outgoing;		//outgoing[w] is the batch being filled for worker w, 2 longs per board
+		private int[] outgoingSize;
+		private final SearchStats stats = new SearchStats();	//The work done by this worker
+		private volatile Thread thread;	//The thread running this worker, to wake it up when a batch arrives
+
+		Worker(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * Method: call
+		 *         Expands boards until there is nothing left to do anywhere.
+		 */
+		@Override
+		public Void call() {
+			this.outgoing = new long[workers.length][2 * BATCH];
+			this.outgoingSize = new int[workers.length];
+			this.thread = Thread.currentThread();
+			try {
+				int expansions = 0;
+				while (!aborted) {
+					receive();	//custom method
+
+					Node current = next();	//custom method
+					if (current != null) {
+						expand(current);	//custom method
+						stats.frontierSize(open.size());
+						if (SearchBudget.isDue(stats.expanded)) {
+							budget.check(expanded.addAndGet(SearchBudget.CHECK_INTERVAL), startEstimate);
+						}
+						if (++expansions % FLUSH_INTERVAL == 0) flush();
+						continue;
+					}
+
+					/* Out of boards. Sleep until more arrive, or every other worker runs out too (see send() and
+					 * deactivate()). An idle worker doesn't keep a processor busy, so the busy ones get it. */
+					flush();
+					if (!inbox.isEmpty()) continue;
+					deactivate(1);	//custom method
+					while (inbox.isEmpty() && active.get() != 0 && !aborted) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+					if (active.get() == 0 || aborted) break;
+					active.incrementAndGet();	//The unreceived batch in the inbox keeps the count above 0 until now
+				}
+			}
+			catch (BudgetExceededException e) {
+				stopped.compareAndSet(null, e);
+				abort();		//Stops the other workers too
+			}
+			catch (RuntimeException | Error e) {
+				abort();
+				throw e;
+			}
+			return null;
+		}
+
+		/**
+		 * Method: next
+		 * @return the best board that is still worth expanding, or null if there is none
+		 */
+		private Node next() {
+			while (!open.isEmpty()) {
+				Node n = open.delMin();
+				if (n.distanceSoFar + n.estimate >= bestLength.get()) {	//Nothing left here can beat the best solution
+					while (!open.isEmpty()) open.delMin();
+					return null;
+				}
+				if (n.distanceSoFar == reached.get(n.board, 0) >>> 3) return n;	//Otherwise superseded by a shorter path
+			}
+			return null;
+		}
+
+		/**
+		 * Method: expand
+		 *         Generates the neighbors of the given board, keeping the ones this worker owns and sending the rest.
+		 */
+		private void expand(Node current) {
+			int distance = current.distanceSoFar + 1;
+			stats.expanded++;
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				int target = Board.blankTarget(current.blank, direction, N);
+				if (target < 0) continue;
+
+				long neighbor = PackedBoard.move(current.board, current.blank, target);
+				stats.generated++;
+				int state = heuristic.update(current.heuristicState, current.board, current.blank, target);
+				stats.heuristicEvaluations++;
+				if (distance + heuristic.value(state) >= bestLength.get()) continue;	//Can't beat the best solution
+
+				int owner = ownerOf(neighbor);
+				if (owner == id) {
+					add(neighbor, target, direction, distance, state);	//custom method
+					continue;
+				}
+				long[] batch = outgoing[owner];
+				int size = outgoingSize[owner];
+				batch[size] = neighbor;
+				batch[size + 1] = (long)state << 32 | distance << 8 | direction << 4 | target;
+				outgoingSize[owner] = size + 2;
+				if (size + 2 == batch.length) send(owner);	//custom method
+			}
+		}
+
+		/**
+		 * Method: add
+		 *         Adds a board this worker owns to its queue, unless it has already been reached with as few moves.
+		 */
+		private void add(long board, int blank, int direction, int distance, int state) {
+			if (reached.get(board, Integer.MAX_VALUE) >>> 3 <= distance) {	//Not a shorter path
+				stats.duplicates++;
+				return;
+			}
+			reached.put(board, distance << 3 | (direction + 1));
+
+			if (board == goal) {	//A solution. Keep it if it's the shortest so far.
+				synchronized (HashDistributedAStar.this.stats) {
+					HashDistributedAStar.this.stats.foundSolution();
+				}
+				int best = bestLength.get();
+				while (distance < best && !bestLength.compareAndSet(best, distance)) best = bestLength.get();
+				return;
+			}
+			open.insert(new Node(board, blank, distance, state, heuristic.value(state)));
+		}
+
+		/**
+		 * Method: receive
+		 *         Adds every board in the batches waiting in the inbox.
+		 */
+		private void receive() {
+			long[] batch;
+			while ((batch = inbox.poll()) != null) {
+				for (int i = 0; i < batch.length; i += 2) {
+					long info = batch[i + 1];
+					add(batch[i], (int)info & 0xF, (int)(info >>> 4) & 0xF, (int)(info >>> 8) & 0xFFFF, (int)(info >>> 32));
+				}
+				deactivate(batch.length / 2);
+			}
+		}
+
+		/**
+		 * Method: send
+		 *         Sends the batch being filled for the given worker.
+		 */
+		private void send(int owner) {
+			int size = outgoingSize[owner];
+			if (size == 0) return;
+			active.addAndGet(size / 2);		//Counted before it is sent, so the count never drops to 0 too early
+			workers[owner].inbox.add(Arrays.copyOf(outgoing[owner], size));
+			outgoingSize[owner] = 0;
+			workers[owner].wake();
+		}
+
+		/**
+		 * Method: wake
+		 *         Wakes this worker up if it is sleeping while idle. If it isn't yet, it won't fall asleep next time.
+		 */
+		private void wake() {
+			Thread t = thread;
+			if (t != null) LockSupport.unpark(t);
+		}
+
+		/**
+		 * Method: flush
+		 *         Sends every partly filled batch.
+		 */
+		private void flush() {
+			for (int w = 0; w < workers.length; w++) send(w);
+		}
+	}
+	//end private class Worker
+
+	/**
+	 * Method: deactivate
+	 *         Takes the given no. of busy workers or unreceived boards off the count, waking every worker up if that
+	 *         leaves none, so that they all see that the search is over.
+	 */
+	private void deactivate(long n) {
+		if (active.addAndGet(-n) == 0) {
+			for (Worker worker : workers) worker.wake();
+		}
+	}
+
+	/**
+	 * Method: abort
+	 *         Stops every worker, waking up the idle ones.
+	 */
+	private void abort() {
+		aborted = true;
+		for (Worker worker : workers) worker.wake();
+	}
+
+	/**
+	 * 3-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param threads the no. of worker threads
+	 */
+	public HashDistributedAStar(Board start, Heuristic heuristic, int threads) {
+		this(start, heuristic, threads, new SearchBudget());
+	}
+
+	/**
+	 * 4-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param threads the no. of worker threads
+	 * @param budget the limits on the search, by every worker together
+	 */
+	public HashDistributedAStar(Board start, Heuristic heuristic, int threads, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+		this.heuristic = heuristic;
+		this.start = start.key();
+		this.startBlank = start.blankIndex();
+		this.goal = PackedBoard.goal(N);
+		this.budget = budget;
+		this.workers = new Worker[threads];
+		for (int w = 0; w < threads; w++) workers[w] = new Worker(w);
+	}
+
+	/**
+	 * Method: ownerOf
+	 * @return the index of the worker that owns the given board. Uses the high bits of the hash, since the low bits
+	 *         pick the slot in the owner's LongHashTable.
+	 */
+	private int ownerOf(long board) {
+		return (int)(((LongHashTable.hash(board) >>> 16) * (long)workers.length) >>> 16);
+	}
+
+	/**
+	 * Method: solve
+	 *         Runs HDA* on the given board.
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if the budget runs out first. The bound it holds is only the heuristic's
+	 *         estimate for the given board, since the workers' queues aren't expanded in order of one another.
+	 */
+	public byte[] solve() {
+		stats.start();
+		budget.start();
+		if (start == goal) {
+			stats.foundSolution();
+			stats.stop();
+			return new byte[0];
+		}
+		int state = heuristic.init(start);
+		stats.heuristicEvaluations++;
+		startEstimate = heuristic.value(state);
+		Worker first = workers[ownerOf(start)];
+		first.reached.put(start, 0);
+		first.open.insert(new Node(start, startBlank, 0, state, heuristic.value(state)));
+		active.set(workers.length);		//Every worker starts out busy
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers.length);
+		boolean interrupted = false;
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(Arrays.asList(workers));
+			for (Future<Void> result : executor.invokeAll(tasks)) {
+				try {
+					result.get();
+				}
+				catch (ExecutionException e) {
+					throw new IllegalStateException("HDA* search failed", e.getCause());
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			interrupted = true;
+			throw new IllegalStateException("HDA* search was interrupted", e);
+		}
+		finally {
+			abort();		//The workers don't check for interrupts, so a worker still running must be told to stop
+			executor.shutdown();
+			while (true) {		//The workers' stats can only be read once they have all stopped writing them
+				try {
+					if (executor.awaitTermination(1, TimeUnit.SECONDS)) break;
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) Thread.currentThread().interrupt();
+			long peakFrontier = 0;	//An upper bound, since the workers' queues needn't peak at once
+			for (Worker worker : workers) {
+				stats.add(worker.stats);
+				peakFrontier += worker.stats.peakFrontier;
+			}
+			stats.frontierSize(peakFrontier);
+		}
+		if (stopped.get() != null) {
+			stats.stop();
+			throw stopped.get();
+		}
+		if (bestLength.get() == Integer.MAX_VALUE) throw new IllegalStateException("No solution found");
+
+		/* Walk back from the goal to the given board, undoing the recorded moves. Each board's recorded no. of moves
+		 * is less than that of the board after it, so this always ends at the given board. */
+		List<Byte> reversed = new ArrayList<Byte>();
+		long board = goal;
+		int blank = PackedBoard.blankIndex(goal, N);
+		while (board != start) {
+			int direction = (workers[ownerOf(board)].reached.get(board, 0) & 7) - 1;
+			reversed.add((byte)direction);
+			int previousBlank = Board.blankTarget(blank, direction ^ 1, N);	//Undo the move
+			board = PackedBoard.move(board, blank, previousBlank);
+			blank = previousBlank;
+		}
+		byte[] moves = new byte[reversed.size()];
+		for (int i = 0; i < moves.length; i++) moves[i] = reversed.get(moves.length - 1 - i);
+		stats.stop();
+		return moves;
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by solve(), once it has returned. The peak frontier is the sum of the workers' peaks.
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+}
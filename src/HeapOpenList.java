@@ -0,0 +1,37 @@
+/** Class: HeapOpenList.java
+ *
+ *  This Class - An OpenList kept in a binary heap. Replacing a board's entry lowers its priority in place
+ *  (see LongIndexMinPQ.java).
+ */
+public class HeapOpenList implements OpenList {
+	private final LongIndexMinPQ pq = new LongIndexMinPQ();
+
+	/**
+	 * Method: priority
+	 * @return the estimated total cost, with the estimate of the moves left as tiebreaker
+	 */
+	private static int priority(int distanceSoFar, int estimate) {
+		return (distanceSoFar + estimate) << 16 | estimate;
+	}
+
+	@Override
+	public void insert(long board, int distanceSoFar, int estimate) {
+		if (pq.contains(board)) pq.decreaseKey(board, priority(distanceSoFar, estimate));
+		else pq.insert(board, priority(distanceSoFar, estimate));
+	}
+
+	@Override
+	public long delMin() {
+		return pq.delMin();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return pq.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return pq.size();
+	}
+}
@@ -0,0 +1,62 @@
+/** Interface: Heuristic.java
+ *
+ *  This Interface - An admissible estimate of the no. of moves needed to solve a packed board (see PackedBoard.java),
+ *  used by the search algorithms in place of Board.manhattan().
+ *  Many heuristics can be updated far more cheaply after a single move than they can be computed from scratch,
+ *  so a search keeps an int "heuristic state" per position rather than the estimate itself. The state is obtained
+ *  from init() for the starting board, carried from parent to neighbor with update(), and turned into the actual
+ *  estimate with value(). For a simple heuristic such as ManhattanHeuristic, the state is just the estimate.
+ */
+public interface Heuristic {
+
+	/**
+	 * Method: dimension
+	 * @return the dimension N of the N x N boards this heuristic works on
+	 */
+	int dimension();
+
+	/**
+	 * Method: init
+	 * @param board a packed board
+	 * @return the heuristic state of the board
+	 */
+	int init(long board);
+
+	/**
+	 * Method: update
+	 * @param state the heuristic state of the board BEFORE the move
+	 * @param board the packed board BEFORE the move
+	 * @param blank the index of the empty spot
+	 * @param target the index of the block that slides into the empty spot
+	 * @return the heuristic state of the board after the move
+	 */
+	int update(int state, long board, int blank, int target);
+
+	/**
+	 * Method: value
+	 * @param state a heuristic state returned by init() or update()
+	 * @return the estimated no. of moves needed to solve the board. Never more than the actual no.
+	 */
+	int value(int state);
+
+	/**
+	 * Method: update
+	 *         Same as the other update(), for a search that generates Boards with Board.neighbors().
+	 * @param state the heuristic state of the board
+	 * @param board a Board with the same dimension as this heuristic
+	 * @param neighbor a neighbor of the board, i.e. one move away from it
+	 * @return the heuristic state of the neighbor
+	 */
+	default int update(int state, Board board, Board neighbor) {
+		return update(state, board.key(), board.blankIndex(), neighbor.blankIndex());
+	}
+
+	/**
+	 * Method: estimate
+	 * @param board a Board with the same dimension as this heuristic
+	 * @return the estimated no. of moves needed to solve the board
+	 */
+	default int estimate(Board board) {
+		return value(init(board.key()));
+	}
+}
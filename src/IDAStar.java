@@ -0,0 +1,178 @@
+/** Class: IDAStar.java
+ *
+ *  This Class - An Iterative-Deepening A* (IDA*) search over a single mutable packed board (see PackedBoard.java).
+ *  Instead of keeping every generated position in a priority queue (as AStar does), it runs a series of
+ *  depth-first searches, each bounded by an f-cost threshold (moves so far + heuristic estimate). When an iteration
+ *  fails, the threshold is raised to the smallest f-cost that exceeded it. Memory use is proportional to the depth
+ *  of the solution rather than to the size of the search frontier.
+ */
+public class IDAStar {
+	private static final int FOUND = -1;	//Returned by search() once the goal has been reached.
+
+	private final int N;				//The dimension N of the N x N board
+	private final Heuristic heuristic;	//Estimates the no. of moves left
+	private final long goal;			//The packed goal board
+	private long board;					//The one and only board. Moves are made and undone in place.
+	private int blank;					//Current index of the empty spot
+	private final int initialState;		//Heuristic state of the starting board
+	private int threshold;				//The f-cost bound for the next iteration
+	private byte[] path;				//path[d] is the direction the empty spot moved at depth d
+	private int solutionLength;			//No. of moves in the solution, or -1 if none has been found yet
+	private final SearchStats stats = new SearchStats();	//Counts the work done by every iteration so far
+	private final SearchBudget budget;	//Limits the work done by every iteration together
+
+	/**
+	 * 2-arg constructor. No limits on the search.
+	 * @param start the board to start searching from. Its dimension must be at most 4, and it must be solvable
+	 *              (see Board.isSolvable()), or else solve() never returns.
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 */
+	public IDAStar(Board start, Heuristic heuristic) {
+		this(start, heuristic, new SearchBudget());
+	}
+
+	/**
+	 * 3-arg constructor.
+	 * @param start the board to start searching from. Its dimension must be at most 4, and it must be solvable
+	 *              (see Board.isSolvable()), or else solve() only returns once the budget runs out.
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param budget the limits on the search, from now until it is solved
+	 */
+	public IDAStar(Board start, Heuristic heuristic, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		this.heuristic = heuristic;
+		this.goal = PackedBoard.goal(N);
+		this.board = start.key();
+		this.blank = start.blankIndex();
+		this.budget = budget;
+		stats.start();
+		budget.start();
+		this.initialState = heuristic.init(board);
+		stats.heuristicEvaluations++;
+		this.threshold = heuristic.value(initialState);
+		this.path = new byte[0];
+		this.solutionLength = -1;
+	}
+
+	/**
+	 * Method: threshold
+	 * @return the f-cost bound that the next call to iterate() will search up to.
+	 */
+	public int threshold() {
+		return threshold;
+	}
+
+	/**
+	 * Method: iterate
+	 *         Runs a single depth-first iteration bounded by the current threshold. If no solution is found,
+	 *         the threshold is raised to the smallest f-cost that was pruned, ready for the next call.
+	 * @return true if a solution was found during this iteration.
+	 * @throws BudgetExceededException if the budget runs out first. The iteration can be run again from the start
+	 *         by calling iterate() again, though the budget will run out again unless it has been changed.
+	 */
+	public boolean iterate() {
+		if (solutionLength >= 0) return true;	//Base case. Already solved.
+
+		if (path.length < threshold + 1) path = new byte[threshold + 1];	//The path can never be longer than the threshold
+		long startBoard = board;
+		int startBlank = blank;
+		int result;
+		try {
+			result = search(0, initialState, -1);
+		}
+		catch (BudgetExceededException e) {	//The moves made on the way down were never undone
+			board = startBoard;
+			blank = startBlank;
+			stats.stop();
+			throw e;
+		}
+		if (result == FOUND) {
+			stats.foundSolution();
+			stats.stop();
+			return true;
+		}
+		stats.stop();	//So far
+		threshold = result;
+		return false;
+	}
+
+	/**
+	 * Method: solve
+	 *         Keeps calling iterate() until a solution is found. Never returns for an unsolvable board, unless the
+	 *         budget runs out.
+	 * @return the solution as a sequence of directions in which the empty spot moves. See moves().
+	 * @throws BudgetExceededException if the budget runs out first
+	 */
+	public byte[] solve() {
+		while (!iterate());
+		return moves();
+	}
+
+	/**
+	 * Method: moves
+	 * @return the solution found as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot,
+	 *         or null if no solution has been found yet.
+	 */
+	public byte[] moves() {
+		if (solutionLength < 0) return null;
+		byte[] ret = new byte[solutionLength];
+		System.arraycopy(path, 0, ret, 0, solutionLength);
+		return ret;
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by every iteration so far
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+
+	/**
+	 * Method: search
+	 *         Recursive depth-first search. Moves are made directly on the board and undone on the way back out.
+	 * @param g the no. of moves made so far
+	 * @param state the heuristic state of the board in its current state
+	 * @param prevDirection the direction of the previous move, or -1 if none. Moving straight back is disallowed.
+	 * @return FOUND if the goal was reached, otherwise the smallest f-cost that exceeded the threshold.
+	 */
+	private int search(int g, int state, int prevDirection) {
+		int f = g + heuristic.value(state);
+		if (f > threshold) return f;
+		if (board == goal) {
+			solutionLength = g;
+			return FOUND;
+		}
+
+		if (SearchBudget.isDue(++stats.expanded)) budget.check(stats.expanded, threshold);	//No solution is shorter
+		stats.frontierSize(g + 1);	//The boards on the path, this one included
+
+		int min = Integer.MAX_VALUE;
+		for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+			if (prevDirection >= 0 && direction == (prevDirection ^ 1)) continue;	//Don't undo the previous move
+			int target = Board.blankTarget(blank, direction, N);
+			if (target < 0) continue;
+
+			/* Slide the block at target into the empty spot */
+			stats.generated++;
+			int newState = heuristic.update(state, board, blank, target);
+			stats.heuristicEvaluations++;
+			long oldBoard = board;
+			int oldBlank = blank;
+			board = PackedBoard.move(board, blank, target);
+			blank = target;
+			path[g] = (byte)direction;
+
+			int result = search(g + 1, newState, direction);
+
+			/* Undo the move */
+			board = oldBoard;
+			blank = oldBlank;
+
+			if (result == FOUND) return FOUND;
+			if (result < min) min = result;
+		}
+		return min;
+	}
+}
@@ -0,0 +1,120 @@
+/** Class: LinearConflictHeuristic.java
+ *
+ *  This Class - The Manhattan distance plus linear conflicts (see Hansson, Mayer & Yung, "Criticizing solutions to
+ *  relaxed models yields powerful admissible heuristics", 1992). Two blocks are in linear conflict if they are in
+ *  the row (or column) where they both belong, but in the wrong order: one of them has to leave the row and come back,
+ *  which costs at least 2 moves more than the Manhattan distance counts. For each row and column, the no. of blocks
+ *  that must leave is the no. of blocks that belong there minus the longest sequence of them already in order.
+ *
+ *  The extra moves of every possible row and column are precomputed, indexed by the blocks in the row or column.
+ *  A move only changes one block's row (or column), so update() re-evaluates just the two rows (or columns) involved,
+ *  much like Board.calcManhattanEfficient() only looks at the block that moved.
+ */
+public class LinearConflictHeuristic implements Heuristic {
+	private final int N;					//The dimension N of the N x N board
+	private final byte[][] rowConflicts;	//rowConflicts[r][key] is the extra moves of row r holding the blocks in key
+	private final byte[][] columnConflicts;	//Same for columns. See rowKey() and columnKey() for the keys.
+
+	/**
+	 * 1-arg constructor.
+	 * @param N the dimension of the boards. Must be at most 4.
+	 */
+	public LinearConflictHeuristic(int N) {
+		if (N < 2 || N > PackedBoard.MAX_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+		this.N = N;
+		this.rowConflicts = new byte[N][1 << (4 * N)];
+		this.columnConflicts = new byte[N][1 << (4 * N)];
+
+		int[] rowGoals = new int[N], columnGoals = new int[N], scratch = new int[N];
+		for (int line = 0; line < N; line++) {
+			for (int key = 0; key < (1 << (4 * N)); key++) {
+				int rowCount = 0, columnCount = 0;
+				for (int j = 0; j < N; j++) {
+					int block = (key >>> (4 * j)) & 0xF;
+					if (block == 0 || block >= N * N) continue;
+					int goalIndex = block - 1;
+					if (goalIndex / N == line) rowGoals[rowCount++] = goalIndex % N;		//Belongs in this row
+					if (goalIndex % N == line) columnGoals[columnCount++] = goalIndex / N;	//Belongs in this column
+				}
+				rowConflicts[line][key] = (byte)(2 * (rowCount - longestIncreasing(rowGoals, rowCount, scratch)));
+				columnConflicts[line][key] = (byte)(2 * (columnCount - longestIncreasing(columnGoals, columnCount, scratch)));
+			}
+		}
+	}
+
+	/**
+	 * Method: longestIncreasing
+	 * @param sequence the sequence
+	 * @param length the length of the sequence
+	 * @param scratch an array at least as long as the sequence
+	 * @return the length of the longest increasing subsequence of the given sequence
+	 */
+	private static int longestIncreasing(int[] sequence, int length, int[] scratch) {
+		int longest = 0;
+		for (int i = 0; i < length; i++) {
+			scratch[i] = 1;		//scratch[i] is the longest increasing subsequence ending at i
+			for (int j = 0; j < i; j++) {
+				if (sequence[j] < sequence[i] && scratch[j] + 1 > scratch[i]) scratch[i] = scratch[j] + 1;
+			}
+			longest = Math.max(longest, scratch[i]);
+		}
+		return longest;
+	}
+
+	@Override
+	public int dimension() {
+		return N;
+	}
+
+	@Override
+	public int init(long board) {
+		int sum = PackedBoard.manhattan(board, N);
+		for (int line = 0; line < N; line++) {
+			sum += rowConflicts[line][rowKey(board, line)] + columnConflicts[line][columnKey(board, line)];
+		}
+		return sum;
+	}
+
+	@Override
+	public int update(int state, long board, int blank, int target) {
+		long after = PackedBoard.move(board, blank, target);
+		state += PackedBoard.manhattanDelta(board, N, blank, target);
+
+		if (blank / N == target / N) {	//The block moved sideways, so only its old and new columns changed
+			int from = target % N, to = blank % N;
+			state += columnConflicts[from][columnKey(after, from)] - columnConflicts[from][columnKey(board, from)];
+			state += columnConflicts[to][columnKey(after, to)] - columnConflicts[to][columnKey(board, to)];
+		}
+		else {							//The block moved up or down, so only its old and new rows changed
+			int from = target / N, to = blank / N;
+			state += rowConflicts[from][rowKey(after, from)] - rowConflicts[from][rowKey(board, from)];
+			state += rowConflicts[to][rowKey(after, to)] - rowConflicts[to][rowKey(board, to)];
+		}
+		return state;
+	}
+
+	@Override
+	public int value(int state) {
+		return state;
+	}
+
+	/**
+	 * Method: rowKey
+	 * @return the blocks of the given row, 4 bits each, leftmost block in the lowest bits
+	 */
+	private int rowKey(long board, int row) {
+		return (int)(board >>> (4 * N * row)) & ((1 << (4 * N)) - 1);
+	}
+
+	/**
+	 * Method: columnKey
+	 * @return the blocks of the given column, 4 bits each, top block in the lowest bits
+	 */
+	private int columnKey(long board, int column) {
+		int key = 0;
+		for (int row = 0; row < N; row++) {
+			key |= PackedBoard.blockAt(board, row * N + column) << (4 * row);
+		}
+		return key;
+	}
+}
@@ -0,0 +1,176 @@
+import java.util.Arrays;
+
+/** Class: LongHashTable.java
+ *
+ *  This Class - A hash table that maps primitive long keys to primitive int values, using open addressing with
+ *  linear probing. Used by the search algorithms to remember positions (encoded as a long, see Board.key())
+ *  without creating a Board, Long or Integer object for every entry the way java.util.HashMap would.
+ */
+public class LongHashTable {
+	private static final long EMPTY = 0L;		//Marks an unused slot. The key 0 itself is stored separately.
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;		//keys[i] is the key stored in slot i, or EMPTY
+	private int[] values;		//values[i] is the value associated with keys[i]
+	private int mask;			//capacity - 1. The capacity is always a power of 2.
+	private int size;			//No. of keys in the table, including the key 0 if present
+	private boolean hasZeroKey;	//Whether the key 0 is present
+	private int zeroValue;		//The value associated with the key 0, if present
+
+	/**
+	 * No-arg constructor.
+	 */
+	public LongHashTable() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * 1-arg constructor.
+	 * @param expectedSize the no. of keys expected to be stored. The table grows as needed regardless.
+	 */
+	public LongHashTable(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2 && capacity < (1 << 30)) capacity <<= 1;	//Keep the table at most half full
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Method: size
+	 * @return the no. of keys in this table
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method: containsKey
+	 * @param key the key to look for
+	 * @return true if this table contains the given key
+	 */
+	public boolean containsKey(long key) {
+		if (key == EMPTY) return hasZeroKey;
+		return keys[slotOf(key)] == key;
+	}
+
+	/**
+	 * Method: get
+	 * @param key the key to look for
+	 * @param defaultValue the value to return if the key is not present
+	 * @return the value associated with the key, or defaultValue if there is none
+	 */
+	public int get(long key, int defaultValue) {
+		if (key == EMPTY) return hasZeroKey ? zeroValue : defaultValue;
+		int slot = slotOf(key);
+		return keys[slot] == key ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * Method: put
+	 *         Associates the given value with the given key, replacing any previous value.
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(long key, int value) {
+		if (key == EMPTY) {
+			if (!hasZeroKey) size++;
+			hasZeroKey = true;
+			zeroValue = value;
+			return;
+		}
+		int slot = slotOf(key);
+		if (keys[slot] != key) {	//New key. It goes into the empty slot that slotOf() stopped at.
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] = value;
+		if (size * 2 > keys.length) resize(keys.length * 2);	//Keep the load factor at or below 1/2
+	}
+
+	/**
+	 * Method: remove
+	 *         Removes the given key, if present. The keys after it in its run of occupied slots are shifted back
+	 *         to fill the gap, so that no "deleted" marker is needed and lookups stay as short as before.
+	 * @param key the key to remove
+	 * @return true if the key was present
+	 */
+	public boolean remove(long key) {
+		if (key == EMPTY) {
+			if (!hasZeroKey) return false;
+			hasZeroKey = false;
+			size--;
+			return true;
+		}
+		int gap = slotOf(key);
+		if (keys[gap] != key) return false;
+		size--;
+		for (int slot = (gap + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			int home = hash(keys[slot]) & mask;
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {	//The gap lies between the key's home slot and its slot
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = EMPTY;
+		return true;
+	}
+
+	/**
+	 * Method: clear
+	 *         Removes every key, keeping the current capacity.
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		hasZeroKey = false;
+		size = 0;
+	}
+
+	/**
+	 * Method: slotOf
+	 * @param key a nonzero key
+	 * @return the slot that holds the key, or else the empty slot where it would be inserted
+	 */
+	private int slotOf(long key) {
+		int slot = hash(key) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != key) {
+			slot = (slot + 1) & mask;	//Linear probing
+		}
+		return slot;
+	}
+
+	/**
+	 * Method: resize
+	 * @param capacity the new capacity. Must be a power of 2.
+	 */
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == EMPTY) continue;
+			int slot = slotOf(oldKeys[i]);
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	/**
+	 * Method: hash
+	 *         Mixes all 64 bits of the key, since Board keys differ mostly in a few nibbles.
+	 *         (This is the finalizer of the MurmurHash3 hash function.)
+	 * @param key the key
+	 * @return the hash value
+	 */
+	static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int)key;
+	}
+}
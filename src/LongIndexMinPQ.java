@@ -0,0 +1,199 @@
+import java.util.NoSuchElementException;
+
+/** Class: LongIndexMinPQ.java
+ *
+ *  This Class - An indexed min priority queue of primitive long ids (such as packed boards, see PackedBoard.java),
+ *  each with a primitive int priority. Like MinPQ, it is a binary heap, but it also keeps track of where each id is
+ *  in the heap, in a LongHashTable. That way, an id that is already in the queue can be looked up, and its priority
+ *  lowered in place, rather than inserting a second entry for it (see the "Index priority queue" in Section 2.4 of
+ *  Algorithms, 4th Edition by Sedgewick and Wayne, which this follows, except that ids need not be small ints).
+ *
+ *  insert(), delMin() and decreaseKey() take logarithmic time; contains(), priorityOf(), minId() and minPriority()
+ *  take constant time.
+ */
+public class LongIndexMinPQ {
+	private long[] ids;				//ids[1..size] is the heap. ids[0] is unused.
+	private int[] priorities;		//priorities[i] is the priority of ids[i]
+	private int size;				//No. of ids in the queue
+	private final LongHashTable position;	//Maps each id in the queue to its index in the heap
+
+	/**
+	 * No-arg constructor.
+	 */
+	public LongIndexMinPQ() {
+		this(16);
+	}
+
+	/**
+	 * 1-arg constructor.
+	 * @param initCapacity the no. of ids expected to be in the queue at once. The queue grows as needed regardless.
+	 */
+	public LongIndexMinPQ(int initCapacity) {
+		ids = new long[initCapacity + 1];
+		priorities = new int[initCapacity + 1];
+		position = new LongHashTable(initCapacity);
+	}
+
+	/**
+	 * Method: isEmpty
+	 * @return true if the queue is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Method: size
+	 * @return the no. of ids in the queue
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method: contains
+	 * @param id an id
+	 * @return true if the given id is in the queue
+	 */
+	public boolean contains(long id) {
+		return position.containsKey(id);
+	}
+
+	/**
+	 * Method: priorityOf
+	 * @param id an id
+	 * @return the priority of the given id
+	 * @throws NoSuchElementException if the id is not in the queue
+	 */
+	public int priorityOf(long id) {
+		int i = position.get(id, 0);
+		if (i == 0) throw new NoSuchElementException("Not in the queue: " + id);
+		return priorities[i];
+	}
+
+	/**
+	 * Method: insert
+	 * @param id an id that is not yet in the queue
+	 * @param priority its priority
+	 * @throws IllegalArgumentException if the id is already in the queue
+	 */
+	public void insert(long id, int priority) {
+		if (position.containsKey(id)) throw new IllegalArgumentException("Already in the queue: " + id);
+		if (size == ids.length - 1) resize(2 * ids.length);
+		size++;
+		ids[size] = id;
+		priorities[size] = priority;
+		swim(size);		//Also records the id's position
+	}
+
+	/**
+	 * Method: decreaseKey
+	 * @param id an id in the queue
+	 * @param priority its new priority, which must not be greater than the current one
+	 * @throws NoSuchElementException if the id is not in the queue
+	 * @throws IllegalArgumentException if the new priority is greater than the current one
+	 */
+	public void decreaseKey(long id, int priority) {
+		int i = position.get(id, 0);
+		if (i == 0) throw new NoSuchElementException("Not in the queue: " + id);
+		if (priority > priorities[i]) throw new IllegalArgumentException("Priority would increase");
+		priorities[i] = priority;
+		swim(i);
+	}
+
+	/**
+	 * Method: minId
+	 * @return an id with the smallest priority
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public long minId() {
+		if (size == 0) throw new NoSuchElementException("Priority queue underflow");
+		return ids[1];
+	}
+
+	/**
+	 * Method: minPriority
+	 * @return the smallest priority
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public int minPriority() {
+		if (size == 0) throw new NoSuchElementException("Priority queue underflow");
+		return priorities[1];
+	}
+
+	/**
+	 * Method: delMin
+	 *         Removes an id with the smallest priority.
+	 * @return that id
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public long delMin() {
+		if (size == 0) throw new NoSuchElementException("Priority queue underflow");
+		long min = ids[1];
+		position.remove(min);
+		if (--size > 0) {
+			move(size + 1, 1);	//The last entry takes the root's place, then sinks
+			sink(1);
+		}
+		return min;
+	}
+
+	/**
+	 * Method: resize
+	 * @param capacity the new length of the heap arrays
+	 */
+	private void resize(int capacity) {
+		long[] newIds = new long[capacity];
+		int[] newPriorities = new int[capacity];
+		System.arraycopy(ids, 1, newIds, 1, size);
+		System.arraycopy(priorities, 1, newPriorities, 1, size);
+		ids = newIds;
+		priorities = newPriorities;
+	}
+
+	/**
+	 * Method: swim
+	 *         Moves the entry at index k up to its place. The entries it passes are moved down one level each,
+	 *         and the entry itself is written only once, so each level costs a single update of its position.
+	 */
+	private void swim(int k) {
+		long id = ids[k];
+		int priority = priorities[k];
+		while (k > 1 && priorities[k / 2] > priority) {
+			move(k / 2, k);
+			k = k / 2;
+		}
+		ids[k] = id;
+		priorities[k] = priority;
+		position.put(id, k);
+	}
+
+	/**
+	 * Method: sink
+	 *         Moves the entry at index k down to its place, the same way swim() moves one up.
+	 */
+	private void sink(int k) {
+		long id = ids[k];
+		int priority = priorities[k];
+		while (2 * k <= size) {
+			int j = 2 * k;
+			if (j < size && priorities[j + 1] < priorities[j]) j++;
+			if (priority <= priorities[j]) break;
+			move(j, k);
+			k = j;
+		}
+		ids[k] = id;
+		priorities[k] = priority;
+		position.put(id, k);
+	}
+
+	/**
+	 * Method: move
+	 *         Copies the entry at index from to index to, keeping its position up to date.
+	 */
+	private void move(int from, int to) {
+		ids[to] = ids[from];
+		priorities[to] = priorities[from];
+		position.put(ids[to], to);
+	}
+}
@@ -0,0 +1,66 @@
+/** Class: ManhattanHeuristic.java
+ *
+ *  This Class - The Manhattan distance (the same estimate as Board.manhattan()) as a Heuristic for packed boards.
+ *  The heuristic state is simply the Manhattan distance itself, which changes by exactly 1 with every move.
+ *  Besides the usual goal board, the distance can be measured to any other target board, which is what a search
+ *  running backwards from the goal towards the starting board needs.
+ */
+public class ManhattanHeuristic implements Heuristic {
+	private final int N;			//The dimension N of the N x N board
+	private final byte[] distance;	//distance[block << 4 | index] is the distance from index to where block belongs, or null for the goal
+
+	/**
+	 * 1-arg constructor. Measures the distance to the goal board.
+	 * @param N the dimension of the boards. Must be at most 4.
+	 */
+	public ManhattanHeuristic(int N) {
+		if (N < 2 || N > PackedBoard.MAX_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+		this.N = N;
+		this.distance = null;	//PackedBoard already has the table for the goal board
+	}
+
+	/**
+	 * 1-arg constructor. Measures the distance to the given target board instead of the goal board.
+	 * @param target the target board. Its dimension must be at most 4.
+	 */
+	public ManhattanHeuristic(Board target) {
+		this.N = target.dimension();
+		if (N < 2 || N > PackedBoard.MAX_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+		this.distance = new byte[16 * 16];
+		long key = target.key();
+		for (int goalIndex = 0; goalIndex < N * N; goalIndex++) {
+			int block = PackedBoard.blockAt(key, goalIndex);
+			if (block == 0) continue;	//The empty spot doesn't count
+			for (int index = 0; index < N * N; index++) {
+				distance[block << 4 | index] = (byte)(Math.abs(index / N - goalIndex / N) + Math.abs(index % N - goalIndex % N));
+			}
+		}
+	}
+
+	@Override
+	public int dimension() {
+		return N;
+	}
+
+	@Override
+	public int init(long board) {
+		if (distance == null) return PackedBoard.manhattan(board, N);
+		int sum = 0;
+		for (int i = 0; i < N * N; i++) {
+			sum += distance[PackedBoard.blockAt(board, i) << 4 | i];
+		}
+		return sum;
+	}
+
+	@Override
+	public int update(int state, long board, int blank, int target) {
+		if (distance == null) return state + PackedBoard.manhattanDelta(board, N, blank, target);
+		int block = PackedBoard.blockAt(board, target) << 4;
+		return state + distance[block | blank] - distance[block | target];
+	}
+
+	@Override
+	public int value(int state) {
+		return state;
+	}
+}
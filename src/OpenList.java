@@ -0,0 +1,43 @@
+/** Interface: OpenList.java
+ *
+ *  This Interface - The open list of AStar: the packed boards (see PackedBoard.java) that have been reached but
+ *  not yet expanded, each with the no. of moves made so far and the heuristic's estimate of the moves left.
+ *  delMin() returns a board with the lowest estimated total cost, preferring the lowest estimate of the moves left
+ *  among those. A board is never returned more than once per insert(), and inserting a board that is already in the
+ *  list replaces its entry, so each board is in the list at most once.
+ *
+ *  HeapOpenList keeps the boards in a binary heap (see LongIndexMinPQ.java). BucketOpenList keeps them in buckets,
+ *  one per estimated total cost and estimate of the moves left.
+ */
+public interface OpenList {
+
+	/**
+	 * Method: insert
+	 *         Adds a board, or replaces its entry if it is already in the list. A replacing entry must not have
+	 *         more moves so far than the entry it replaces.
+	 * @param board a packed board
+	 * @param distanceSoFar the no. of moves made so far to get to the board
+	 * @param estimate the heuristic's estimate of the no. of moves left
+	 */
+	void insert(long board, int distanceSoFar, int estimate);
+
+	/**
+	 * Method: delMin
+	 *         Removes a board with the lowest estimated total cost, and among those, the lowest estimate.
+	 * @return that board
+	 * @throws java.util.NoSuchElementException if the list is empty
+	 */
+	long delMin();
+
+	/**
+	 * Method: isEmpty
+	 * @return true if the list is empty
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Method: size
+	 * @return the no. of boards in the list
+	 */
+	int size();
+}
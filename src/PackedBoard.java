@@ -0,0 +1,153 @@
+/** Class: PackedBoard.java
+ *
+ *  This Class - Static methods for working with a board of dimension N <= 4 packed into a single long,
+ *  4 bits per block: the block at index i of the 1-D grid occupies bits 4*i to 4*i + 3 (the same layout as
+ *  Board.key()). Moves, equality, hashing and Manhattan distance are all done with shifts and masks, so a search
+ *  can keep 8 bytes per position instead of a Board object.
+ *  Since the position of the empty spot cannot be read off a packed board without scanning it, callers
+ *  normally keep track of it themselves.
+ */
+public final class PackedBoard {
+	static final int MAX_DIMENSION = 4;
+
+	/* DISTANCE[N][block << 4 | index] is the Manhattan distance between the given index and where the given block
+	 * belongs on an N x N board. The entries for block 0 are all 0, since the empty spot doesn't count. */
+	private static final byte[][] DISTANCE = new byte[MAX_DIMENSION + 1][];
+	static {
+		for (int N = 2; N <= MAX_DIMENSION; N++) {
+			DISTANCE[N] = new byte[16 * 16];
+			for (int block = 1; block < N * N; block++) {
+				for (int index = 0; index < N * N; index++) {
+					int goalIndex = block - 1;
+					DISTANCE[N][block << 4 | index] = (byte)(Math.abs(index / N - goalIndex / N) + Math.abs(index % N - goalIndex % N));
+				}
+			}
+		}
+	}
+
+	private PackedBoard() { }	//Not instantiable
+
+	/**
+	 * Method: pack
+	 * @param grid an N x N board expressed as a 1-D array, with N <= 4
+	 * @return the packed board
+	 */
+	static long pack(char[] grid) {
+		long board = 0;
+		for (int i = 0; i < grid.length; i++) {
+			board |= (long)grid[i] << (4 * i);
+		}
+		return board;
+	}
+
+	/**
+	 * Method: unpack
+	 * @param board a packed board
+	 * @param N the dimension of the board
+	 * @return the board expressed as a 1-D array
+	 */
+	static char[] unpack(long board, int N) {
+		char[] grid = new char[N * N];
+		for (int i = 0; i < grid.length; i++) {
+			grid[i] = (char)blockAt(board, i);
+		}
+		return grid;
+	}
+
+	/**
+	 * Method: goal
+	 * @param N the dimension of the board
+	 * @return the packed goal board: blocks 1 to N*N - 1 in order, followed by the empty spot.
+	 */
+	static long goal(int N) {
+		long board = 0;
+		for (int i = 0; i < N * N; i++) {
+			board |= (long)Board.correctBlock(i, N) << (4 * i);
+		}
+		return board;
+	}
+
+	/**
+	 * Method: blockAt
+	 * @param board a packed board
+	 * @param index an index position on the grid
+	 * @return the block at that index
+	 */
+	static int blockAt(long board, int index) {
+		return (int)(board >>> (4 * index)) & 0xF;
+	}
+
+	/**
+	 * Method: blankIndex
+	 * @param board a packed board
+	 * @param N the dimension of the board
+	 * @return the index of the empty spot
+	 */
+	static int blankIndex(long board, int N) {
+		for (int i = 0; i < N * N; i++) {
+			if (blockAt(board, i) == 0) return i;
+		}
+		throw new IllegalArgumentException("Board has no empty spot");
+	}
+
+	/**
+	 * Method: move
+	 *         Slides the block at the target index into the empty spot.
+	 * @param board a packed board
+	 * @param blank the index of the empty spot
+	 * @param target an index next to the empty spot (see Board.blankTarget())
+	 * @return the resulting packed board, whose empty spot is at the target index
+	 */
+	static long move(long board, int blank, int target) {
+		long block = (board >>> (4 * target)) & 0xF;
+		return (board & ~(0xFL << (4 * target))) | (block << (4 * blank));	//The empty spot's nibble was 0 already
+	}
+
+	/**
+	 * Method: manhattan
+	 * @param board a packed board
+	 * @param N the dimension of the board
+	 * @return sum of all Manhattan distances between each block and their goal.
+	 */
+	static int manhattan(long board, int N) {
+		byte[] distance = DISTANCE[N];
+		int sum = 0;
+		for (int i = 0; i < N * N; i++) {
+			sum += distance[blockAt(board, i) << 4 | i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Method: manhattanDelta
+	 * @param board a packed board
+	 * @param N the dimension of the board
+	 * @param blank the index of the empty spot
+	 * @param target the index of the block about to slide into the empty spot
+	 * @return the change in Manhattan distance caused by that move: either 1 or -1
+	 */
+	static int manhattanDelta(long board, int N, int blank, int target) {
+		int block = blockAt(board, target) << 4;
+		return DISTANCE[N][block | blank] - DISTANCE[N][block | target];
+	}
+
+	/**
+	 * Method: distance
+	 * @param N the dimension of the board
+	 * @param block a block no.
+	 * @param index an index position on the grid
+	 * @return the Manhattan distance from the given index to where the block belongs (0 for the empty spot)
+	 */
+	static int distance(int N, int block, int index) {
+		return DISTANCE[N][block << 4 | index];
+	}
+
+	/**
+	 * Method: hash
+	 * @param board a packed board
+	 * @return a well-mixed hash of the packed board
+	 */
+	static int hash(long board) {
+		return LongHashTable.hash(board);
+	}
+}
@@ -0,0 +1,268 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Class: ParallelIDAStar.java
+ *
+ *  This Class - IDA* (see IDAStar.java) spread over several threads. Each iteration's search tree is split into
+ *  subtrees near the root, and the subtrees are handed out by a ForkJoinPool, whose idle threads steal work from
+ *  busy ones. Below the split depth, each subtree is searched depth-first on a single thread, over its own copy of
+ *  the packed board, exactly as IDAStar does.
+ *
+ *  Every iteration only looks for a solution no longer than the threshold, and every shorter threshold has already
+ *  failed, so the first solution found by any thread is optimal. At that point the other threads are told to stop.
+ *  The heuristic is shared by all threads, so it must not change once constructed, which is true of every Heuristic
+ *  in this project.
+ */
+public class ParallelIDAStar {
+	private static final int FOUND = -1;			//Returned by a search once the goal has been reached.
+	static final int DEFAULT_SPLIT_DEPTH = 8;		//Boards this many moves from the start are searched as separate tasks
+
+	private final int N;				//The dimension N of the N x N board
+	private final Heuristic heuristic;	//Estimates the no. of moves left
+	private final long goal;			//The packed goal board
+	private final long start;			//The packed starting board
+	private final int startBlank;		//Index of the empty spot of the starting board
+	private final int initialState;		//Heuristic state of the starting board
+	private final int threads;			//No. of threads to search with
+	private final int splitDepth;		//See DEFAULT_SPLIT_DEPTH
+	private int threshold;				//The f-cost bound for the current iteration
+	private final AtomicBoolean found = new AtomicBoolean();		//Set once any thread finds the goal
+	private final AtomicReference<byte[]> solution = new AtomicReference<byte[]>();	//The moves that thread found
+	private final SearchStats stats = new SearchStats();	//Counts the work done by every thread. See Subtree.stats.
+	private final SearchBudget budget;	//Limits the work done by every thread together
+	private final AtomicLong expanded = new AtomicLong();	//Boards expanded by every thread, CHECK_INTERVAL at a time
+	private final AtomicReference<BudgetExceededException> stopped = new AtomicReference<BudgetExceededException>();
+
+	/**
+	 * 3-arg constructor.
+	 * @param start the board to start searching from. Its dimension must be at most 4, and it must be solvable.
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param threads the no. of threads to search with
+	 */
+	public ParallelIDAStar(Board start, Heuristic heuristic, int threads) {
+		this(start, heuristic, threads, DEFAULT_SPLIT_DEPTH);
+	}
+
+	/**
+	 * 4-arg constructor.
+	 * @param start the board to start searching from. Its dimension must be at most 4, and it must be solvable.
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param threads the no. of threads to search with
+	 * @param splitDepth boards this many moves from the start are searched as separate tasks
+	 */
+	public ParallelIDAStar(Board start, Heuristic heuristic, int threads, int splitDepth) {
+		this(start, heuristic, threads, splitDepth, new SearchBudget());
+	}
+
+	/**
+	 * 5-arg constructor.
+	 * @param start the board to start searching from. Its dimension must be at most 4, and it must be solvable.
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param threads the no. of threads to search with
+	 * @param splitDepth boards this many moves from the start are searched as separate tasks
+	 * @param budget the limits on the search, by every thread together
+	 */
+	public ParallelIDAStar(Board start, Heuristic heuristic, int threads, int splitDepth, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+		if (splitDepth < 0) throw new IllegalArgumentException("Split depth can't be negative");
+		this.heuristic = heuristic;
+		this.goal = PackedBoard.goal(N);
+		this.start = start.key();
+		this.startBlank = start.blankIndex();
+		this.budget = budget;
+		stats.start();
+		this.initialState = heuristic.init(this.start);
+		stats.heuristicEvaluations++;
+		this.threads = threads;
+		this.splitDepth = splitDepth;
+		this.threshold = heuristic.value(initialState);
+	}
+
+	/**
+	 * Method: solve
+	 *         Runs iterations with a growing threshold until a solution is found. Never returns for an unsolvable board,
+	 *         unless the budget runs out.
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if the budget runs out first
+	 */
+	public byte[] solve() {
+		budget.start();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			while (true) {
+				Subtree root = new Subtree(start, startBlank, initialState, 0, -1, new byte[threshold + 1]);
+				int result = pool.invoke(root);
+				stats.add(root.stats);
+				stats.frontierSize(root.stats.peakFrontier);
+				if (solution.get() != null) {
+					stats.foundSolution();
+					return solution.get();
+				}
+				if (stopped.get() != null) throw stopped.get();
+				threshold = result;
+			}
+		}
+		finally {
+			stats.stop();
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by solve(), once it has returned. The peak frontier is the longest path searched.
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+
+	/**
+	 * Inner class. Searches the subtree below one board. Near the root, each child board becomes a task of its own;
+	 * further down, the whole subtree is searched depth-first on the current thread.
+	 */
+	private class Subtree extends RecursiveTask<Integer> {
+		private static final long serialVersionUID = 1L;
+
+		private long board;			//Moves are made and undone in place during the depth-first search
+		private int blank;			//Current index of the empty spot
+		private final int state;	//Heuristic state of the board this task starts at
+		private final int g;		//No. of moves from the start to the board this task starts at
+		private final int prevDirection;	//The direction of the last move, or -1 if none
+		private final byte[] path;	//path[d] is the direction the empty spot moved at depth d. Owned by this task.
+		private final SearchStats stats = new SearchStats();	//The work done in this subtree, once it's searched
+
+		Subtree(long board, int blank, int state, int g, int prevDirection, byte[] path) {
+			this.board = board;
+			this.blank = blank;
+			this.state = state;
+			this.g = g;
+			this.prevDirection = prevDirection;
+			this.path = path;
+		}
+
+		/**
+		 * Method: compute
+		 * @return FOUND if the goal was reached, otherwise the smallest f-cost that exceeded the threshold.
+		 */
+		@Override
+		protected Integer compute() {
+			if (g >= splitDepth) {
+				try {
+					budget.check(expanded.get(), threshold);	//Also checked here, since most subtrees are small
+					return search(g, state, prevDirection);
+				}
+				catch (BudgetExceededException e) {
+					stopped.compareAndSet(null, e);
+					found.set(true);	//Tells the other threads to stop, the same as a solution would
+					return Integer.MAX_VALUE;
+				}
+				finally {
+					expanded.addAndGet(stats.expanded & (SearchBudget.CHECK_INTERVAL - 1));	//Not yet counted
+				}
+			}
+
+			int f = g + heuristic.value(state);
+			if (f > threshold) return f;
+			if (board == goal) return found(g);
+			if (found.get()) return Integer.MAX_VALUE;	//Another thread has already solved it
+
+			/* Fork a task for every child but the last, which is searched on this thread. */
+			Subtree[] children = new Subtree[4];
+			int count = 0;
+			stats.expanded++;
+			stats.frontierSize(g + 1);
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				if (prevDirection >= 0 && direction == (prevDirection ^ 1)) continue;	//Don't undo the previous move
+				int target = Board.blankTarget(blank, direction, N);
+				if (target < 0) continue;
+				stats.generated++;
+				stats.heuristicEvaluations++;
+
+				byte[] childPath = path.clone();
+				childPath[g] = (byte)direction;
+				children[count++] = new Subtree(PackedBoard.move(board, blank, target), target,
+						heuristic.update(state, board, blank, target), g + 1, direction, childPath);
+			}
+			for (int i = 0; i < count - 1; i++) children[i].fork();
+
+			int min = children[count - 1].compute();
+			for (int i = count - 2; i >= 0; i--) {
+				int result = children[i].join();
+				if (result < min) min = result;		//FOUND is less than any f-cost
+			}
+			for (int i = 0; i < count; i++) {
+				stats.add(children[i].stats);
+				stats.frontierSize(children[i].stats.peakFrontier);	//The paths below this board, not side by side
+			}
+			return min;
+		}
+
+		/**
+		 * Method: search
+		 *         Recursive depth-first search, the same as IDAStar.search(), except that it gives up once another
+		 *         thread has found the goal.
+		 * @param depth the no. of moves made so far
+		 * @param state the heuristic state of the board in its current state
+		 * @param prevDirection the direction of the previous move, or -1 if none
+		 * @return FOUND if the goal was reached, otherwise the smallest f-cost that exceeded the threshold.
+		 */
+		private int search(int depth, int state, int prevDirection) {
+			int f = depth + heuristic.value(state);
+			if (f > threshold) return f;
+			if (board == goal) return found(depth);
+			if (found.get()) return Integer.MAX_VALUE;	//Another thread has already solved it
+			if (SearchBudget.isDue(++stats.expanded)) {
+				budget.check(expanded.addAndGet(SearchBudget.CHECK_INTERVAL), threshold);	//No solution is shorter
+			}
+			stats.frontierSize(depth + 1);
+
+			int min = Integer.MAX_VALUE;
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				if (prevDirection >= 0 && direction == (prevDirection ^ 1)) continue;	//Don't undo the previous move
+				int target = Board.blankTarget(blank, direction, N);
+				if (target < 0) continue;
+
+				/* Slide the block at target into the empty spot */
+				stats.generated++;
+				int newState = heuristic.update(state, board, blank, target);
+				stats.heuristicEvaluations++;
+				long oldBoard = board;
+				int oldBlank = blank;
+				board = PackedBoard.move(board, blank, target);
+				blank = target;
+				path[depth] = (byte)direction;
+
+				int result = search(depth + 1, newState, direction);
+
+				/* Undo the move */
+				board = oldBoard;
+				blank = oldBlank;
+
+				if (result == FOUND) return FOUND;
+				if (result < min) min = result;
+			}
+			return min;
+		}
+
+		/**
+		 * Method: found
+		 *         Records this task's path as the solution, unless another thread got there first.
+		 * @param length the no. of moves in the path
+		 * @return FOUND
+		 */
+		private int found(int length) {
+			if (found.compareAndSet(false, true)) {
+				byte[] moves = new byte[length];
+				System.arraycopy(path, 0, moves, 0, length);
+				solution.set(moves);
+			}
+			return FOUND;
+		}
+	}
+	//end private class Subtree
+}
@@ -0,0 +1,587 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Class: PatternDatabase.java
+ *
+ *  This Class - An additive, disjoint pattern database heuristic (see Korf & Felner, "Disjoint pattern database
+ *  heuristics", 2002). The blocks are split into disjoint groups, e.g. blocks 1-7 and 8-15 for the "7-8" partition
+ *  of the 4 x 4 puzzle. For every possible placement of a group's blocks, a table stores the fewest moves OF THAT
+ *  GROUP'S BLOCKS needed to bring them all to their goal positions, with every other block treated as
+ *  indistinguishable from the empty spot. Since no move is counted by more than one group, the values of the
+ *  groups can be added together and still never overestimate the actual no. of moves.
+ *
+ *  Each table is built by a breadth-first search backwards from the goal over (placement, empty spot) pairs.
+ *  The empty spot can wander through the cells not occupied by the group for free, so only the connected region
+ *  of free cells it is in matters; it is represented by the lowest index in that region. Each layer of the search
+ *  is expanded by all available cores in parallel.
+ *
+ *  The heuristic state (see Heuristic.java) holds one byte per group, so at most 4 groups are supported.
+ *
+ *  Since building the larger databases takes minutes, they can be saved to a file with save() and loaded back
+ *  with load(), which maps the tables into memory instead of reading them. The file format (big-endian) is:
+ *      int magic ("PDB1"), int version, int N, int no. of groups,
+ *      for each group: int no. of blocks k, followed by k ints holding the block numbers,
+ *      then for each group, its table: one byte per entry, cells! / (cells - k)! entries, in rank() order.
+ */
+public class PatternDatabase implements Heuristic {
+	private static final int MAX_GROUPS = 4;
+	private static final byte UNKNOWN = (byte)0xFF;	//Table entry that hasn't been reached by the search yet
+	private static final int MAGIC = 0x50444231;	//"PDB1"
+	private static final int VERSION = 1;
+
+	/* The standard partitions of the 4 x 4 puzzle. 6-6-3 and 5-5-5 follow Korf & Felner. */
+	private static final int[][] PARTITION_7_8 = { {1, 2, 3, 4, 5, 6, 7}, {8, 9, 10, 11, 12, 13, 14, 15} };
+	private static final int[][] PARTITION_6_6_3 = { {1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4} };
+	private static final int[][] PARTITION_5_5_5 = { {1, 2, 5, 6, 9}, {3, 4, 7, 8, 11}, {10, 12, 13, 14, 15} };
+	/* A partition of the 3 x 3 puzzle. */
+	private static final int[][] PARTITION_4_4 = { {1, 2, 3, 4}, {5, 6, 7, 8} };
+
+	private final int N;			//The dimension N of the N x N board
+	private final int cells;		//N * N
+	private final int[][] groups;	//groups[g] holds the block numbers in group g
+	private final int[] groupOf;	//groupOf[b] is the group that block b belongs to, or -1
+	private final int notFirstColumn, notLastColumn;	//Bit masks of the cells not in the first/last column
+	private final ByteBuffer[] tables;	//tables[g].get(rank) is the fewest moves of group g's blocks from that placement
+	private int threads;				//No. of threads used to build the tables
+	private ExecutorService executor;	//Runs the threads while the tables are being built
+	private BuildListener listener;		//Notified of the progress of the build, or null
+
+	/**
+	 * Interface. Receives progress reports while the tables are being built.
+	 */
+	public interface BuildListener {
+		/**
+		 * Method: layerDone
+		 *         Called each time a layer of the breadth-first search for a group's table is finished.
+		 * @param group the index of the group whose table is being built
+		 * @param depth the no. of moves of the layer that was just found
+		 * @param states the no. of (placement, empty spot region) states in that layer; 0 once the search is over
+		 * @param elapsedMillis the time spent on this group's table so far
+		 */
+		void layerDone(int group, int depth, long states, long elapsedMillis);
+	}
+
+	/**
+	 * 1-arg constructor. Builds the pattern database for one of the standard partitions.
+	 * @param partition "7-8", "6-6-3" or "5-5-5" for the 4 x 4 puzzle, or "4-4" for the 3 x 3 puzzle
+	 */
+	public PatternDatabase(String partition) {
+		this(dimensionOf(partition), standardPartition(partition));
+	}
+
+	/**
+	 * 2-arg constructor. Builds the pattern database for the given partition. This can take a while, and for the
+	 * largest groups (e.g. the 8 blocks of the 7-8 partition) several gigabytes of memory.
+	 * @param N the dimension of the board. Must be at most 4.
+	 * @param groups the groups of blocks. Every block may appear in at most one group.
+	 */
+	public PatternDatabase(int N, int[][] groups) {
+		this(N, groups, Runtime.getRuntime().availableProcessors(), null);
+	}
+
+	/**
+	 * 4-arg constructor. Builds the pattern database for the given partition.
+	 * @param N the dimension of the board. Must be at most 4.
+	 * @param groups the groups of blocks. Every block may appear in at most one group.
+	 * @param threads the no. of threads to build the tables with
+	 * @param listener notified after every layer of the search, or null
+	 */
+	public PatternDatabase(int N, int[][] groups, int threads, BuildListener listener) {
+		this(N, groups, null, threads, listener);
+	}
+
+	/**
+	 * 5-arg constructor.
+	 * @param N the dimension of the board. Must be at most 4.
+	 * @param groups the groups of blocks. Every block may appear in at most one group.
+	 * @param tables the tables of each group, or null to build them
+	 * @param threads the no. of threads to build the tables with, if they are to be built
+	 * @param listener notified of the progress of the build, or null
+	 */
+	private PatternDatabase(int N, int[][] groups, ByteBuffer[] tables, int threads, BuildListener listener) {
+		if (N < 2 || N > PackedBoard.MAX_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+		if (groups.length == 0 || groups.length > MAX_GROUPS)
+			throw new IllegalArgumentException("Between 1 and " + MAX_GROUPS + " groups are supported");
+
+		this.N = N;
+		this.cells = N * N;
+		this.groups = new int[groups.length][];
+		this.groupOf = new int[cells];
+		Arrays.fill(groupOf, -1);
+		for (int g = 0; g < groups.length; g++) {
+			this.groups[g] = groups[g].clone();
+			for (int block : groups[g]) {
+				if (block < 1 || block >= cells) throw new IllegalArgumentException("No such block: " + block);
+				if (groupOf[block] >= 0) throw new IllegalArgumentException("Block " + block + " is in more than one group");
+				groupOf[block] = g;
+			}
+		}
+
+		int notFirst = 0, notLast = 0;
+		for (int i = 0; i < cells; i++) {
+			if (i % N != 0) notFirst |= 1 << i;
+			if (i % N != N - 1) notLast |= 1 << i;
+		}
+		this.notFirstColumn = notFirst;
+		this.notLastColumn = notLast;
+
+		if (tables == null) {
+			if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+			this.threads = threads;
+			this.listener = listener;
+			this.executor = Executors.newFixedThreadPool(threads);
+			tables = new ByteBuffer[groups.length];
+			try {
+				for (int g = 0; g < groups.length; g++) {
+					tables[g] = ByteBuffer.wrap(build(g));	//custom method
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while building pattern database", e);
+			}
+			finally {
+				executor.shutdown();
+				executor = null;
+				this.listener = null;
+			}
+		}
+		this.tables = tables;
+	}
+
+	/**
+	 * Method: forPartition
+	 *         Loads the pattern database for one of the standard partitions from the file
+	 *         &lt;partition&gt;.pdb in the current directory. If there is no such file, the database is built and
+	 *         then saved to that file, so only the first run has to wait for it.
+	 * @param partition "7-8", "6-6-3" or "5-5-5" for the 4 x 4 puzzle, or "4-4" for the 3 x 3 puzzle
+	 * @return the pattern database
+	 * @throws IOException if the file exists but can't be loaded, or can't be saved
+	 */
+	public static PatternDatabase forPartition(String partition) throws IOException {
+		Path file = Paths.get(partition + ".pdb");
+		if (Files.exists(file)) {
+			PatternDatabase pdb = load(file);
+			if (pdb.N != dimensionOf(partition) || !Arrays.deepEquals(pdb.groups, standardPartition(partition)))
+				throw new IOException(file + " does not hold the " + partition + " partition");
+			return pdb;
+		}
+		System.err.println("Building pattern database " + file + "...");
+		PatternDatabase pdb = new PatternDatabase(dimensionOf(partition), standardPartition(partition),
+				Runtime.getRuntime().availableProcessors(),
+				(group, depth, states, elapsed) -> System.err.printf("  group %d, %2d moves: %,d states (%,d ms)%n",
+						group + 1, depth, states, elapsed));
+		pdb.save(file);
+		return pdb;
+	}
+
+	/**
+	 * Method: save
+	 *         Writes this pattern database to a file in the format described above.
+	 *         The file is written under a temporary name first, so a concurrent load() never sees half a file.
+	 * @param file the file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(N);
+			out.writeInt(groups.length);
+			for (int[] group : groups) {
+				out.writeInt(group.length);
+				for (int block : group) out.writeInt(block);
+			}
+			out.flush();
+
+			for (ByteBuffer table : tables) {
+				ByteBuffer source = table.duplicate();	//Leaves the position of the shared buffer alone
+				source.clear();
+				while (source.hasRemaining()) channel.write(source);
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Method: load
+	 *         Loads a pattern database written by save(). The tables are memory-mapped read-only rather than read,
+	 *         so loading is nearly instant, pages are only read from disk as lookups need them, and every process
+	 *         that loads the same file shares the same pages of the operating system's file cache.
+	 * @param file the file to load
+	 * @return the pattern database
+	 * @throws IOException if the file can't be read or is not a valid pattern database file
+	 */
+	public static PatternDatabase load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+			if (in.readInt() != MAGIC) throw new IOException(file + " is not a pattern database file");
+			int version = in.readInt();
+			if (version != VERSION) throw new IOException(file + " has unsupported version " + version);
+
+			int N = in.readInt();
+			int numGroups = in.readInt();
+			if (N < 2 || N > PackedBoard.MAX_DIMENSION || numGroups < 1 || numGroups > MAX_GROUPS)
+				throw new IOException(file + " has an invalid header");
+			int[][] groups = new int[numGroups][];
+			long offset = 16;
+			for (int g = 0; g < numGroups; g++) {
+				int k = in.readInt();
+				if (k < 1 || k >= N * N) throw new IOException(file + " has an invalid header");
+				groups[g] = new int[k];
+				for (int i = 0; i < k; i++) groups[g][i] = in.readInt();
+				offset += 4 + 4L * k;
+			}
+
+			ByteBuffer[] tables = new ByteBuffer[numGroups];
+			for (int g = 0; g < numGroups; g++) {
+				long size = 1;
+				for (int i = 0; i < groups[g].length; i++) size *= N * N - i;
+				if (offset + size > channel.size()) throw new IOException(file + " is truncated");
+				tables[g] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);	//Stays valid after the channel is closed
+				offset += size;
+			}
+
+			try {
+				return new PatternDatabase(N, groups, tables, 0, null);
+			}
+			catch (IllegalArgumentException e) {
+				throw new IOException(file + " has an invalid header: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Method: standardPartition
+	 * @param name "7-8", "6-6-3", "5-5-5" or "4-4"
+	 * @return the groups of blocks of the named partition
+	 */
+	static int[][] standardPartition(String name) {
+		switch (name) {
+			case "7-8":		return PARTITION_7_8;
+			case "6-6-3":	return PARTITION_6_6_3;
+			case "5-5-5":	return PARTITION_5_5_5;
+			case "4-4":		return PARTITION_4_4;
+			default:		throw new IllegalArgumentException("Unknown partition: " + name);
+		}
+	}
+
+	/**
+	 * Method: dimensionOf
+	 * @param name the name of a standard partition
+	 * @return the dimension of the board that the partition is for
+	 */
+	private static int dimensionOf(String name) {
+		return "4-4".equals(name) ? 3 : 4;
+	}
+
+	@Override
+	public int dimension() {
+		return N;
+	}
+
+	/**
+	 * Method: init
+	 * @return one byte per group, holding that group's table entry for the board
+	 */
+	@Override
+	public int init(long board) {
+		long positions = positionsOf(board);	//custom method
+		int state = 0;
+		for (int g = 0; g < groups.length; g++) {
+			state |= lookup(g, positions) << (8 * g);	//custom method
+		}
+		return state;
+	}
+
+	/**
+	 * Method: update
+	 *         Only the group of the block that moves can change, so only its table entry is looked up again.
+	 */
+	@Override
+	public int update(int state, long board, int blank, int target) {
+		int g = groupOf[PackedBoard.blockAt(board, target)];
+		if (g < 0) return state;	//The block isn't in any group, so no table entry changes.
+
+		int value = lookup(g, positionsOf(PackedBoard.move(board, blank, target)));
+		return (state & ~(0xFF << (8 * g))) | (value << (8 * g));
+	}
+
+	/**
+	 * Method: value
+	 * @return the sum of the groups' table entries
+	 */
+	@Override
+	public int value(int state) {
+		return (state & 0xFF) + ((state >>> 8) & 0xFF) + ((state >>> 16) & 0xFF) + (state >>> 24);
+	}
+
+	/**
+	 * Method: positionsOf
+	 * @param board a packed board
+	 * @return the inverse of the board, packed the same way: nibble b holds the index where block b is.
+	 */
+	private long positionsOf(long board) {
+		long positions = 0;
+		for (int i = 0; i < cells; i++) {
+			positions |= (long)i << (4 * PackedBoard.blockAt(board, i));
+		}
+		return positions;
+	}
+
+	/**
+	 * Method: lookup
+	 *         Same as rank(), but reads the positions of the group's blocks straight out of positionsOf().
+	 * @param g a group
+	 * @param positions the packed positions of every block, see positionsOf()
+	 * @return the table entry of the group
+	 */
+	private int lookup(int g, long positions) {
+		int[] group = groups[g];
+		int rank = 0, used = 0;
+		for (int i = 0; i < group.length; i++) {
+			int p = (int)(positions >>> (4 * group[i])) & 0xF;
+			rank = rank * (cells - i) + p - Integer.bitCount(used & ((1 << p) - 1));
+			used |= 1 << p;
+		}
+		return tables[g].get(rank) & 0xFF;
+	}
+
+	/**
+	 * Method: rank
+	 *         Numbers the placements of k blocks on the board consecutively from 0, i.e. ranks a k-permutation of
+	 *         the board's cells. The i-th position is replaced by its rank among the cells not used by positions
+	 *         0 to i-1, and the results are read as a mixed-radix number with digits of base cells, cells-1, ...
+	 * @param positions positions[i] is the index where the i-th block of the group is
+	 * @param k the no. of blocks in the group
+	 * @return the rank, between 0 and tableSize(k) - 1
+	 */
+	private int rank(int[] positions, int k) {
+		int rank = 0, used = 0;
+		for (int i = 0; i < k; i++) {
+			int p = positions[i];
+			rank = rank * (cells - i) + p - Integer.bitCount(used & ((1 << p) - 1));
+			used |= 1 << p;
+		}
+		return rank;
+	}
+
+	/**
+	 * Method: unrank
+	 *         The reverse of rank().
+	 * @param rank a rank
+	 * @param k the no. of blocks in the group
+	 * @param positions array to be filled in with the positions of the blocks
+	 * @return a bit mask of the cells occupied by the blocks
+	 */
+	private int unrank(int rank, int k, int[] positions) {
+		for (int i = k - 1; i >= 0; i--) {	//Peel off the digits, last one first
+			positions[i] = rank % (cells - i);
+			rank /= (cells - i);
+		}
+		int used = 0;
+		for (int i = 0; i < k; i++) {		//Turn the i-th digit into the index of the digit-th unused cell
+			int cell = 0;
+			for (int skip = positions[i]; ; cell++) {
+				if ((used & (1 << cell)) == 0 && skip-- == 0) break;
+			}
+			positions[i] = cell;
+			used |= 1 << cell;
+		}
+		return used;
+	}
+
+	/**
+	 * Method: tableSize
+	 * @param k the no. of blocks in a group
+	 * @return the no. of ways to place them on the board, i.e. cells! / (cells - k)!
+	 */
+	private int tableSize(int k) {
+		long size = 1;
+		for (int i = 0; i < k; i++) size *= cells - i;
+		if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Group of " + k + " blocks is too large");
+		return (int)size;
+	}
+
+	/**
+	 * Method: region
+	 * @param cell the index of the empty spot
+	 * @param occupied bit mask of the cells occupied by the group's blocks
+	 * @return bit mask of all the cells the empty spot can reach without moving any of the group's blocks
+	 */
+	private int region(int cell, int occupied) {
+		int free = ((1 << cells) - 1) & ~occupied;
+
+		int region = 1 << cell, previous = 0;
+		while (region != previous) {	//Keep growing the region by one step in every direction until it stops changing
+			previous = region;
+			region |= (((region & notLastColumn) << 1) | ((region & notFirstColumn) >>> 1)
+					| (region << N) | (region >>> N)) & free;
+		}
+		return region;
+	}
+
+	/**
+	 * Method: build
+	 *         Breadth-first search backwards from the goal, one layer (no. of moves) at a time. A state is the rank of
+	 *         the group's placement times cells, plus the lowest index of the empty spot's region. Visited states and
+	 *         the states in the current and next layers are kept as bit sets.
+	 *         Each layer is split into chunks of the current layer's bit set, which are expanded in parallel. Bits are
+	 *         set with compare-and-set, so exactly one thread claims each newly visited state. Table entries can be
+	 *         written by more than one thread, but only ever with the same value (the depth of the next layer).
+	 * @param g the index of the group
+	 * @return the table of fewest moves, indexed by rank()
+	 * @throws InterruptedException if interrupted while waiting for a layer to finish
+	 */
+	private byte[] build(int g) throws InterruptedException {
+		int[] group = groups[g];
+		int k = group.length;
+		int size = tableSize(k);
+		byte[] table = new byte[size];
+		Arrays.fill(table, UNKNOWN);
+
+		long states = (long)size * cells;
+		int words = (int)((states + 63) >>> 6);
+		AtomicLongArray visited = new AtomicLongArray(words);
+		AtomicLongArray current = new AtomicLongArray(words);
+		AtomicLongArray next = new AtomicLongArray(words);
+
+		/* The goal: each block of the group where it belongs, and the empty spot where it belongs. */
+		int[] positions = new int[k];
+		int goalBlank = 0;
+		for (int i = 0; i < cells; i++) {
+			int block = Board.correctBlock(i, N);
+			if (block == 0) goalBlank = i;
+			for (int j = 0; j < k; j++) {
+				if (group[j] == block) positions[j] = i;
+			}
+		}
+		int occupied = 0;
+		for (int p : positions) occupied |= 1 << p;
+		int goalRank = rank(positions, k);
+		long goalState = (long)goalRank * cells + Integer.numberOfTrailingZeros(region(goalBlank, occupied));
+		setBit(visited, goalState);
+		setBit(current, goalState);
+		table[goalRank] = 0;
+
+		int chunks = Math.min(words, threads * 16);	//More chunks than threads, to even out the load
+		long startTime = System.currentTimeMillis();
+		for (int depth = 0; ; depth++) {
+			final AtomicLongArray layer = current, nextLayer = next;
+			final int d = depth;
+			List<Callable<Long>> tasks = new ArrayList<Callable<Long>>(chunks);
+			for (int c = 0; c < chunks; c++) {
+				final int from = (int)((long)words * c / chunks), to = (int)((long)words * (c + 1) / chunks);
+				tasks.add(() -> expandChunk(k, d, from, to, table, visited, layer, nextLayer));	//custom method
+			}
+
+			long found = 0;
+			for (Future<Long> result : executor.invokeAll(tasks)) {
+				try {
+					found += result.get();
+				}
+				catch (ExecutionException e) {
+					throw new IllegalStateException("Failed to build pattern database", e.getCause());
+				}
+			}
+			if (listener != null) listener.layerDone(g, depth + 1, found, System.currentTimeMillis() - startTime);
+			if (found == 0) break;	//Nothing new was reached, so the search is over
+
+			current = next;			//The next layer becomes the current one. expandChunk() cleared the old current one.
+			next = layer;
+		}
+		return table;
+	}
+
+	/**
+	 * Method: expandChunk
+	 *         Expands the states of the current layer whose bits are in the given range of words, then clears those
+	 *         words so that the bit set can be reused for the layer after next.
+	 * @return the no. of states not visited before that were found
+	 */
+	private long expandChunk(int k, int depth, int fromWord, int toWord, byte[] table,
+			AtomicLongArray visited, AtomicLongArray current, AtomicLongArray next) {
+		int[] positions = new int[k], newPositions = new int[k];
+		long found = 0;
+		for (int w = fromWord; w < toWord; w++) {
+			long bits = current.get(w);
+			if (bits == 0) continue;
+			current.set(w, 0L);
+			while (bits != 0) {
+				long state = ((long)w << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				found += expand(state, k, depth, positions, newPositions, table, visited, next);	//custom method
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Method: expand
+	 *         Generates every state one move of a group block away from the given state.
+	 * @return the no. of states not visited before that were found
+	 */
+	private int expand(long state, int k, int depth, int[] positions, int[] newPositions,
+			byte[] table, AtomicLongArray visited, AtomicLongArray next) {
+		int occupied = unrank((int)(state / cells), k, positions);
+		int reachable = region((int)(state % cells), occupied);
+		int found = 0;
+
+		/* The empty spot can be anywhere in its region. Try sliding every group block next to the region into it. */
+		for (int cell = 0; cell < cells; cell++) {
+			if ((reachable & (1 << cell)) == 0) continue;
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				int from = Board.blankTarget(cell, direction, N);
+				if (from < 0 || (occupied & (1 << from)) == 0) continue;
+
+				int newOccupied = occupied ^ (1 << from) ^ (1 << cell);
+				for (int i = 0; i < k; i++) newPositions[i] = (positions[i] == from) ? cell : positions[i];
+				int newRank = rank(newPositions, k);
+				long newState = (long)newRank * cells + Integer.numberOfTrailingZeros(region(from, newOccupied));
+				if (!setBit(visited, newState)) continue;	//Already visited, or another thread just claimed it
+
+				setBit(next, newState);
+				if (table[newRank] == UNKNOWN) table[newRank] = (byte)(depth + 1);
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Method: setBit
+	 * @param bits a bit set
+	 * @param i the index of the bit to set
+	 * @return true if the bit was not set before, i.e. this call is the one that set it
+	 */
+	private static boolean setBit(AtomicLongArray bits, long i) {
+		int w = (int)(i >>> 6);
+		long mask = 1L << i;
+		while (true) {
+			long word = bits.get(w);
+			if ((word & mask) != 0) return false;
+			if (bits.compareAndSet(w, word, word | mask)) return true;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Class: PuzzleReader.java
+ *
+ *  This Class - Reads puzzles in the format of the puzzle files: N, then the N x N blocks row by row, with 0 for the
+ *  empty spot, all separated by whitespace. Unlike In, which tokenizes with java.util.Scanner and its regular
+ *  expressions, the digits are turned into ints straight from the bytes, without creating a String per token.
+ *  A small file is read with a single read() call; a large one is memory-mapped instead. Apart from the Board itself,
+ *  nothing is allocated per puzzle: the bytes of a small file, the blocks and the record of the blocks seen so far
+ *  are all kept in buffers that each thread reuses from one puzzle to the next.
+ *
+ *  The puzzle is checked as it is read: N must be from 2 to Board.MAX_DIMENSION, every block must be in the range
+ *  0 to N*N - 1 and appear only once, and nothing but whitespace may follow the last block.
+ */
+public final class PuzzleReader {
+	private static final int MAP_THRESHOLD = 1 << 16;		//Files at least this large are memory-mapped
+
+	/**
+	 * Inner class. The buffers that one thread reuses for every puzzle it reads.
+	 */
+	private static class Scratch {
+		private final ByteBuffer file = ByteBuffer.allocateDirect(MAP_THRESHOLD);	//The bytes of a small file
+		private char[] grid = new char[0];		//The blocks, row by row. Exactly N * N long, as Board.fromGrid() needs.
+		private long[] seen = new long[0];		//Bit b is set once block b has been read
+	}
+	//end private static class Scratch
+
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+	private PuzzleReader() { }	//Not meant to be instantiated
+
+	/**
+	 * Method: read
+	 * @param file a puzzle file
+	 * @return the board in the file
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if the file doesn't hold a valid puzzle
+	 */
+	public static Board read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer buffer;
+			if (size >= MAP_THRESHOLD) buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			else {
+				buffer = SCRATCH.get().file;
+				buffer.clear().limit((int)size);
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+				buffer.flip();
+			}
+			try {
+				return parse(buffer);
+			}
+			catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Method: parse
+	 * @param text a puzzle, e.g. "2 1 2 0 3". Line breaks are just whitespace, so the whole puzzle may be on one line.
+	 * @return the board
+	 * @throws IllegalArgumentException if the text isn't a valid puzzle
+	 */
+	public static Board parse(String text) {
+		return parse(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	/**
+	 * Method: parse
+	 *         Reads a puzzle from the buffer's position up to its limit, leaving the position at the limit.
+	 * @param buffer the bytes of a puzzle, in ASCII
+	 * @return the board
+	 * @throws IllegalArgumentException if the bytes aren't a valid puzzle
+	 */
+	public static Board parse(ByteBuffer buffer) {
+		int N = nextInt(buffer);
+		if (N < 2 || N > Board.MAX_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+
+		Scratch scratch = SCRATCH.get();
+		if (scratch.grid.length != N * N) scratch.grid = new char[N * N];
+		int words = (N * N + 63) >>> 6;
+		if (scratch.seen.length < words) scratch.seen = new long[words];
+		Arrays.fill(scratch.seen, 0, words, 0);
+
+		char[] grid = scratch.grid;
+		long[] seen = scratch.seen;
+		for (int i = 0; i < grid.length; i++) {
+			int block = nextInt(buffer);
+			if (block >= grid.length) throw new IllegalArgumentException("Block " + block + " is out of range");
+			if ((seen[block >>> 6] & 1L << block) != 0) throw new IllegalArgumentException("Block " + block + " appears twice");
+			seen[block >>> 6] |= 1L << block;
+			grid[i] = (char)block;
+		}
+
+		skipWhitespace(buffer);
+		if (buffer.hasRemaining()) throw new IllegalArgumentException("Unexpected input after the last block");
+		return Board.fromGrid(grid);	//Copies the blocks, so the grid can be reused
+	}
+
+	/**
+	 * Method: nextInt
+	 * @param buffer the input
+	 * @return the next non-negative int in the input, skipping any whitespace before it
+	 * @throws IllegalArgumentException if the input ends, or the next token is not a non-negative int
+	 */
+	private static int nextInt(ByteBuffer buffer) {
+		skipWhitespace(buffer);
+		if (!buffer.hasRemaining()) throw new IllegalArgumentException("Unexpected end of input");
+
+		int value = 0, digits = 0;
+		while (buffer.hasRemaining()) {
+			int c = buffer.get(buffer.position());
+			if (isWhitespace(c)) break;
+			if (c < '0' || c > '9') throw new IllegalArgumentException("Unexpected character '" + (char)c + "'");
+			value = value * 10 + (c - '0');
+			if (++digits > 9) throw new IllegalArgumentException("Number too large");
+			buffer.position(buffer.position() + 1);
+		}
+		return value;
+	}
+
+	/**
+	 * Method: skipWhitespace
+	 *         Advances the buffer's position past any whitespace.
+	 */
+	private static void skipWhitespace(ByteBuffer buffer) {
+		while (buffer.hasRemaining() && isWhitespace(buffer.get(buffer.position()))) {
+			buffer.position(buffer.position() + 1);
+		}
+	}
+
+	/**
+	 * Method: isWhitespace
+	 * @return true for a space, tab, line feed, carriage return or form feed
+	 */
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+	}
+}
@@ -0,0 +1,281 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** Class: PuzzleStream.java
+ *
+ *  This Class - Reads many puzzles from a single file, one at a time, so that a corpus of any size can be solved
+ *  without holding all of it in memory. Two formats are read, told apart by the first four bytes:
+ *
+ *  Text: one puzzle per line, in the same format as a puzzle file but on a single line (e.g. "2 1 2 0 3").
+ *  Blank lines and lines starting with # are skipped.
+ *
+ *  Binary (big-endian): int magic ("PZB1"), then for each puzzle a byte N, followed by either the packed board as a
+ *  long if N is at most 4 (see PackedBoard.java), or else the N x N blocks row by row, a byte each (so N is at most 16).
+ *  A binary file is written by writeBinary(), or by running this class with a text file and the binary file to
+ *  write: PuzzleStream INPUT.txt OUTPUT.pzb
+ *
+ *  A puzzle that isn't valid makes next() throw an IllegalArgumentException. In a text file, or a binary file whose
+ *  puzzle had a valid N but bad blocks, the puzzles that follow it can still be read. A binary puzzle with an
+ *  unsupported N, or cut short by the end of the file, leaves no way to tell where the next one starts, so the
+ *  stream ends there: hasNext() returns false from then on.
+ */
+public class PuzzleStream implements Iterator<Board>, Closeable {
+	private static final int MAGIC = 0x505A4231;	//"PZB1"
+	private static final int MAX_BINARY_DIMENSION = 16;	//So that every block fits in a byte
+
+	private final InputStream in;
+	private final boolean binary;
+	private byte[] line = new byte[256];	//The current line of a text file. Grown as needed.
+	private int next = -2;					//The next byte of the input, -1 at the end, or -2 if not read yet
+	private int count;						//No. of puzzles (lines, for a text file) read so far
+	private boolean isLost;					//True once a binary puzzle couldn't be framed, which ends the stream
+
+	/**
+	 * 1-arg constructor.
+	 * @param in the input, in either format. Closed by close().
+	 * @throws IOException if the input can't be read
+	 */
+	public PuzzleStream(InputStream in) throws IOException {
+		this.in = new BufferedInputStream(in, 1 << 16);
+		this.in.mark(4);
+		int magic = 0;
+		for (int i = 0; i < 4; i++) magic = magic << 8 | (this.in.read() & 0xFF);
+		this.binary = (magic == MAGIC);
+		if (!binary) this.in.reset();
+	}
+
+	/**
+	 * Method: open
+	 * @param file a file in either format, or "-" for standard input
+	 * @return a stream of the puzzles in it
+	 * @throws IOException if the file can't be opened
+	 */
+	public static PuzzleStream open(String file) throws IOException {
+		return new PuzzleStream(file.equals("-") ? System.in : Files.newInputStream(Paths.get(file)));
+	}
+
+	/**
+	 * Method: count
+	 * @return the no. of puzzles read so far. For a text file, this is the no. of lines, skipped ones included.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Method: hasNext
+	 * @return true if there is another puzzle to read
+	 * @throws UncheckedIOException if the input can't be read
+	 */
+	@Override
+	public boolean hasNext() {
+		if (isLost) return false;
+		try {
+			if (!binary) skipIgnoredLines();	//custom method
+			return peek() >= 0;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Method: next
+	 * @return the next puzzle
+	 * @throws NoSuchElementException if there are no more puzzles
+	 * @throws IllegalArgumentException if the next puzzle is not valid
+	 * @throws UncheckedIOException if the input can't be read
+	 */
+	@Override
+	public Board next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		count++;
+		try {
+			if (binary) return nextBinary();
+			int length = readLine();	//May replace line[] with a larger array
+			return PuzzleReader.parse(ByteBuffer.wrap(line, 0, length));
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException((binary ? "Puzzle " : "Line ") + count + ": " + e.getMessage(), e);
+		}
+		catch (EOFException e) {
+			isLost = true;
+			throw new IllegalArgumentException("Puzzle " + count + ": truncated", e);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Method: nextBinary
+	 *         Checks the blocks as they are read, with a bit per block seen, and builds the board straight from them.
+	 * @return the next puzzle of a binary file
+	 */
+	private Board nextBinary() throws IOException {
+		int N = read();
+		if (N < 2 || N > MAX_BINARY_DIMENSION) {
+			isLost = true;		//The length of the puzzle, and so where the next one starts, is unknown
+			throw new IllegalArgumentException("Unsupported dimension: " + N);
+		}
+		int cells = N * N;
+		if (N <= PackedBoard.MAX_DIMENSION) {
+			long key = 0;
+			for (int i = 0; i < 8; i++) key = key << 8 | read();
+			if (cells < 16 && key >>> (4 * cells) != 0) throw new IllegalArgumentException("Unexpected data after the last block");
+			int seen = 0;		//Bit b is set once block b has been seen
+			for (int i = 0; i < cells; i++) {
+				int block = PackedBoard.blockAt(key, i);
+				if (block >= cells) throw new IllegalArgumentException("Block " + block + " is out of range");
+				if ((seen & 1 << block) != 0) throw new IllegalArgumentException("Block " + block + " appears twice");
+				seen |= 1 << block;
+			}
+			return Board.fromKey(key, N);
+		}
+		char[] grid = new char[cells];
+		for (int i = 0; i < cells; i++) grid[i] = (char)read();	//All of them first, so a bad one doesn't skew the next puzzle
+		long[] seen = new long[(cells + 63) / 64];	//Bit b is set once block b has been seen
+		for (int i = 0; i < cells; i++) {
+			int block = grid[i];
+			if (block >= cells) throw new IllegalArgumentException("Block " + block + " is out of range");
+			if ((seen[block >>> 6] & 1L << block) != 0) throw new IllegalArgumentException("Block " + block + " appears twice");
+			seen[block >>> 6] |= 1L << block;
+		}
+		return Board.fromGrid(grid);
+	}
+
+	/**
+	 * Method: readLine
+	 *         Reads the next line of a text file into line[], without its line terminator.
+	 * @return the length of the line
+	 */
+	private int readLine() throws IOException {
+		int length = 0;
+		for (int c = read0(); c >= 0 && c != '\n'; c = read0()) {
+			if (length == line.length) line = Arrays.copyOf(line, length * 2);
+			line[length++] = (byte)c;
+		}
+		return length;		//A trailing '\r' is whitespace to PuzzleReader
+	}
+
+	/**
+	 * Method: skipIgnoredLines
+	 *         Skips blank lines and comment lines in a text file, counting them.
+	 */
+	private void skipIgnoredLines() throws IOException {
+		while (true) {
+			int c = peek();
+			while (c == ' ' || c == '\t' || c == '\r') {	//Leading whitespace
+				read0();
+				c = peek();
+			}
+			if (c == '\n') {
+				read0();
+				count++;
+			}
+			else if (c == '#') {
+				readLine();
+				count++;
+			}
+			else return;
+		}
+	}
+
+	/**
+	 * Method: peek
+	 * @return the next byte without consuming it, or -1 at the end of the input
+	 */
+	private int peek() throws IOException {
+		if (next == -2) next = in.read();
+		return next;
+	}
+
+	/**
+	 * Method: read0
+	 * @return the next byte, or -1 at the end of the input
+	 */
+	private int read0() throws IOException {
+		int c = peek();
+		next = -2;
+		return c;
+	}
+
+	/**
+	 * Method: read
+	 * @return the next byte
+	 * @throws EOFException at the end of the input
+	 */
+	private int read() throws IOException {
+		int c = read0();
+		if (c < 0) throw new EOFException();
+		return c;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Method: writeBinary
+	 *         Writes puzzles in the binary format described above.
+	 * @param puzzles the puzzles. Their dimension must be at most 16.
+	 * @param out where to write them. Not closed.
+	 * @throws IOException if the output can't be written
+	 */
+	public static void writeBinary(Iterator<Board> puzzles, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		data.writeInt(MAGIC);
+		while (puzzles.hasNext()) {
+			Board board = puzzles.next();
+			int N = board.dimension();
+			if (N > MAX_BINARY_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+			data.writeByte(N);
+			if (N <= PackedBoard.MAX_DIMENSION) data.writeLong(board.key());
+			else {
+				for (int i = 0; i < N * N; i++) data.writeByte(board.blockAt(i));
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Method: main
+	 *         Converts a text file of puzzles to a binary one.
+	 * @param args the text file, then the binary file to write
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: PuzzleStream INPUT.txt OUTPUT.pzb");
+			System.exit(1);
+		}
+
+		/* Written to a temporary file first, so that a bad puzzle or a full disk never leaves a partial corpus
+		 * behind under the output's name (as in PatternDatabase.save()). */
+		Path file = Paths.get(args[1]);
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (PuzzleStream puzzles = open(args[0]); OutputStream out = Files.newOutputStream(temp)) {
+			writeBinary(puzzles, out);
+		}
+		catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
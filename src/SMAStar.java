@@ -0,0 +1,313 @@
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/** Class: SMAStar.java
+ *
+ *  This Class - Simplified Memory-bounded A* (SMA*, see Russell, "Efficient memory-bounded search methods", 1992).
+ *  Like A*, it always works on the open node with the lowest estimated total cost f, but it never keeps more than a
+ *  given no. of nodes in memory. Once that many are, the worst leaf (highest f, then fewest moves) is forgotten to
+ *  make room, and its f is backed up into its parent, which remembers it for that move. The parent becomes open
+ *  again, so that the forgotten subtree is regenerated if it ever becomes the most promising one again.
+ *
+ *  The search tree only leaves out moves that undo the one before, so a board may be in memory more than once.
+ *  A node is generated one successor at a time, rather than all at once, so that the limit is never exceeded.
+ *  The solution found is optimal if the shortest one fits in memory, i.e. if it has fewer moves than the limit on
+ *  nodes. Otherwise, solve() throws a BudgetExceededException, which holds the fewest moves that a solution could
+ *  have, as far as the search got.
+ */
+public class SMAStar {
+	private static final int INFINITY = Integer.MAX_VALUE;	//The f of a node that can't lead to a solution in memory
+	static final int BYTES_PER_NODE = 256;	//A generous estimate of the memory held by each node in memory
+
+	private final int N;				//The dimension N of the N x N board
+	private final Heuristic heuristic;	//Estimates the no. of moves left
+	private final long start;			//The given board, packed
+	private final int startBlank;		//The index of the empty spot of the given board
+	private final long goal;			//The packed goal board
+	private final int maxNodes;			//The most nodes kept in memory at once
+	private final SearchBudget budget;	//Limits the work done by solve()
+	private final SearchStats stats = new SearchStats();	//Counts the work done by solve()
+
+	private final TreeSet<Node> open = new TreeSet<Node>(ORDER);	//Nodes with a successor that isn't in memory
+	private final TreeSet<Node> leaves = new TreeSet<Node>(ORDER);	//Nodes without a successor in memory
+	private int nodesInMemory;
+	private long nextId;				//Tells apart nodes that would otherwise be ordered the same
+	private int bound;					//The highest key expanded so far
+	private int cutOffF = INFINITY;		//The lowest f of a node given INFINITY only because memory ran out
+
+	/* Orders by key, then by most moves (so that the deepest of the best nodes is expanded first, and the shallowest
+	 * of the worst leaves is forgotten first), then by when the node was created. */
+	private static final Comparator<Node> ORDER = (n1, n2) -> {
+		if (n1.key != n2.key) return (n1.key < n2.key) ? -1 : 1;
+		if (n1.g != n2.g) return (n1.g > n2.g) ? -1 : 1;
+		return Long.compare(n1.id, n2.id);
+	};
+
+	/**
+	 * Inner class. A node of the search tree in memory.
+	 */
+	private static class Node {
+		private final long board;		//The packed board
+		private final byte blank;		//Index of the empty spot
+		private final short g;			//The no. of moves from the given board
+		private final byte direction;	//The direction of the move from the parent, or -1 for the given board
+		private final int heuristicState;	//See Heuristic.java
+		private final int ownF;			//The f this node was generated with. A lower bound for any successor.
+		private final Node parent;
+		private final long id;
+		private int f;					//The lowest f of any successor, in memory or not. See backUp().
+		private int key;				//The lowest f of any successor not in memory. The node's place in the sets.
+		private int unseen;				//Bit mask of the directions of the successors never generated
+		private int forgotten;			//Bit mask of the directions of the successors generated, then forgotten
+		private int[] forgottenF;		//forgottenF[d] is the f of the forgotten successor in direction d
+		private Node[] children;		//children[d] is the successor in direction d, if it's in memory
+		private int childrenInMemory;
+		private boolean inSets;			//Whether the node is in the open and leaves sets it belongs in
+
+		Node(long board, int blank, int g, int direction, int heuristicState, int f, Node parent, long id, int N) {
+			this.board = board;
+			this.blank = (byte)blank;
+			this.g = (short)g;
+			this.direction = (byte)direction;
+			this.heuristicState = heuristicState;
+			this.ownF = f;
+			this.f = f;
+			this.parent = parent;
+			this.id = id;
+			for (int d = Board.UP; d <= Board.RIGHT; d++) {
+				if (direction >= 0 && d == (direction ^ 1)) continue;	//Don't undo the previous move
+				if (Board.blankTarget(blank, d, N) >= 0) unseen |= 1 << d;
+			}
+		}
+
+		/**
+		 * Method: openF
+		 * @return the lowest f of any successor not in memory, or INFINITY if every successor is in memory
+		 */
+		int openF() {
+			int min = (unseen != 0) ? ownF : INFINITY;
+			for (int d = Board.UP; d <= Board.RIGHT; d++) {
+				if ((forgotten & 1 << d) != 0 && forgottenF[d] < min) min = forgottenF[d];
+			}
+			return min;
+		}
+	}
+	//end private static class Node
+
+	/**
+	 * 3-arg constructor. No limits on the search other than the no. of nodes in memory.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param maxNodes the most nodes to keep in memory at once. At least 2.
+	 */
+	public SMAStar(Board start, Heuristic heuristic, int maxNodes) {
+		this(start, heuristic, maxNodes, new SearchBudget());
+	}
+
+	/**
+	 * 4-arg constructor.
+	 * @param start the board to solve. Its dimension must be at most 4, and it must be solvable (see Board.isSolvable()).
+	 * @param heuristic the heuristic to use. Must have the same dimension as the board.
+	 * @param maxNodes the most nodes to keep in memory at once. At least 2.
+	 * @param budget the limits on the search
+	 */
+	public SMAStar(Board start, Heuristic heuristic, int maxNodes, SearchBudget budget) {
+		this.N = start.dimension();
+		if (heuristic.dimension() != N) throw new IllegalArgumentException("Heuristic is for a different dimension");
+		if (maxNodes < 2) throw new IllegalArgumentException("At least 2 nodes are needed");
+		this.heuristic = heuristic;
+		this.start = start.key();
+		this.startBlank = start.blankIndex();
+		this.goal = PackedBoard.goal(N);
+		this.maxNodes = maxNodes;
+		this.budget = budget;
+	}
+
+	/**
+	 * Method: maxNodesFor
+	 * @param heapBytes the memory that the nodes may take up
+	 * @return the no. of nodes that fit in it (see BYTES_PER_NODE)
+	 */
+	public static int maxNodesFor(long heapBytes) {
+		return (int)Math.max(2, Math.min(Integer.MAX_VALUE, heapBytes / BYTES_PER_NODE));
+	}
+
+	/**
+	 * Method: solve
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 * @throws BudgetExceededException if no solution fits in memory, or the budget runs out first
+	 */
+	public byte[] solve() {
+		stats.start();
+		budget.start();
+		try {
+			return search();	//custom method
+		}
+		finally {
+			stats.stop();
+		}
+	}
+
+	/**
+	 * Method: search
+	 * @return the solution as a sequence of Board.UP/DOWN/LEFT/RIGHT moves of the empty spot
+	 */
+	private byte[] search() {
+		int startState = heuristic.init(start);
+		stats.heuristicEvaluations++;
+		Node root = new Node(start, startBlank, 0, -1, startState, heuristic.value(startState), null, nextId++, N);
+		nodesInMemory = 1;
+		attach(root);	//custom method
+
+		while (true) {
+			Node n = open.first();		//Never empty: the root is open until every successor is in memory
+			if (n.key == INFINITY) throw new BudgetExceededException(SearchBudget.Reason.NODES, lowerBound());
+			bound = Math.max(bound, n.key);
+			if (n.board == goal) {
+				stats.foundSolution();
+				return pathTo(n);	//custom method
+			}
+			if (SearchBudget.isDue(++stats.expanded)) budget.check(stats.expanded, lowerBound());
+
+			detach(n);
+			generateSuccessor(n);	//custom method
+			attach(n);
+			stats.frontierSize(nodesInMemory);
+		}
+	}
+
+	/**
+	 * Method: lowerBound
+	 * @return the fewest moves that a solution could have, as far as the search has got. The keys expanded so far
+	 *         only bound the solutions that fit in memory, so the longer ones are bounded by the nodes cut off.
+	 */
+	private int lowerBound() {
+		return Math.min(bound, cutOffF);
+	}
+
+	/**
+	 * Method: generateSuccessor
+	 *         Generates the best successor of the given node that isn't in memory: one never generated before, if any,
+	 *         otherwise the forgotten one with the lowest f. Makes room for it first if memory is full.
+	 * @param n a node that has been detached (see detach())
+	 */
+	private void generateSuccessor(Node n) {
+		int direction;
+		if (n.unseen != 0) direction = Integer.numberOfTrailingZeros(n.unseen);
+		else {
+			direction = -1;
+			for (int d = Board.UP; d <= Board.RIGHT; d++) {
+				if ((n.forgotten & 1 << d) != 0 && (direction < 0 || n.forgottenF[d] < n.forgottenF[direction])) direction = d;
+			}
+		}
+		int target = Board.blankTarget(n.blank, direction, N);
+		long board = PackedBoard.move(n.board, n.blank, target);
+		int state = heuristic.update(n.heuristicState, n.board, n.blank, target);
+		stats.generated++;
+		stats.heuristicEvaluations++;
+
+		/* The successor's f is never less than its parent's (pathmax), nor than what it was before it was forgotten. */
+		int g = n.g + 1;
+		int f = Math.max(n.ownF, g + heuristic.value(state));
+		if ((n.forgotten & 1 << direction) != 0) f = Math.max(f, n.forgottenF[direction]);
+		if (board != goal && g >= maxNodes - 1) {	//Its successors can't fit in memory along with its path
+			cutOffF = Math.min(cutOffF, f);
+			f = INFINITY;
+		}
+		n.unseen &= ~(1 << direction);
+		n.forgotten &= ~(1 << direction);
+
+		if (nodesInMemory == maxNodes) forgetWorstLeaf(n);	//custom method
+		Node s = new Node(board, target, g, direction, state, f, n, nextId++, N);
+		if (n.children == null) n.children = new Node[4];
+		n.children[direction] = s;
+		n.childrenInMemory++;
+		nodesInMemory++;
+		attach(s);
+		backUp(n);	//custom method
+	}
+
+	/**
+	 * Method: forgetWorstLeaf
+	 *         Removes the leaf with the highest f (the one with the fewest moves, of those with the same f) from memory,
+	 *         recording its f in its parent.
+	 * @param expanding the node being expanded, which has been detached and so is never the one removed
+	 */
+	private void forgetWorstLeaf(Node expanding) {
+		Node worst = leaves.last();		//Never empty; see below
+		detach(worst);
+		Node parent = worst.parent;
+		if (parent != expanding) detach(parent);
+		/* The tree in memory has maxNodes nodes, and a node at a depth of maxNodes - 1 or more is never expanded,
+		 * so the tree is not a single path ending at the node being expanded, and has a leaf other than it. */
+		parent.children[worst.direction] = null;
+		parent.childrenInMemory--;
+		if (parent.forgottenF == null) parent.forgottenF = new int[4];
+		parent.forgottenF[worst.direction] = worst.f;
+		parent.forgotten |= 1 << worst.direction;
+		nodesInMemory--;
+		if (parent != expanding) attach(parent);
+	}
+
+	/**
+	 * Method: backUp
+	 *         Sets the f of the given node to the lowest f of its successors, in memory or not, and does the same for
+	 *         its ancestors for as long as that changes anything.
+	 */
+	private void backUp(Node n) {
+		for (; n != null; n = n.parent) {
+			int f = n.openF();
+			if (n.children != null) {
+				for (Node child : n.children) {
+					if (child != null && child.f < f) f = child.f;
+				}
+			}
+			if (f == n.f) return;
+			boolean isLeaf = n.inSets && n.childrenInMemory == 0;	//A leaf's f is its key
+			if (isLeaf) detach(n);
+			n.f = f;
+			if (isLeaf) attach(n);
+		}
+	}
+
+	/**
+	 * Method: attach
+	 *         Adds the given node to the open set if it has a successor that isn't in memory, and to the leaves if it
+	 *         has none that is, ordered by its current key.
+	 */
+	private void attach(Node n) {
+		n.key = n.openF();
+		if (n.unseen != 0 || n.forgotten != 0) open.add(n);
+		if (n.childrenInMemory == 0) leaves.add(n);
+		n.inSets = true;
+	}
+
+	/**
+	 * Method: detach
+	 *         Removes the given node from both sets, so that its key can change.
+	 */
+	private void detach(Node n) {
+		if (!n.inSets) return;
+		open.remove(n);
+		leaves.remove(n);
+		n.inSets = false;
+	}
+
+	/**
+	 * Method: pathTo
+	 * @return the moves from the given board to the given node
+	 */
+	private static byte[] pathTo(Node n) {
+		byte[] moves = new byte[n.g];
+		for (; n.parent != null; n = n.parent) moves[n.g - 1] = n.direction;
+		return moves;
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by solve(), once it has returned. The peak frontier is the most nodes in memory at once.
+	 */
+	public SearchStats stats() {
+		return stats;
+	}
+}
@@ -0,0 +1,88 @@
+/** Class: SearchBudget.java
+ *
+ *  This Class - Limits how long a search may run: a max. no. of milliseconds, a max. no. of boards expanded (which
+ *  also bounds the memory used by the searches that keep every board they reach), or both. A search can also be
+ *  stopped from another thread at any time with cancel().
+ *
+ *  The search engines check the budget once every CHECK_INTERVAL expansions, so a search may run up to that many
+ *  expansions past its limit before it stops. When it does, it throws a BudgetExceededException, which holds the
+ *  fewest moves that a solution could have, as far as the search got (see Solver.isBudgetExceeded()).
+ *
+ *  The clock starts when the search does, and a budget is meant for one search at a time.
+ */
+public class SearchBudget {
+	static final int CHECK_INTERVAL = 1 << 10;	//No. of expansions between checks. A power of 2.
+
+	/**
+	 * The reasons a search can be stopped.
+	 */
+	public enum Reason { TIME, NODES, CANCELLED }
+
+	private final long maxMillis;		//0 for no time limit
+	private final long maxNodes;		//0 for no limit on the no. of boards expanded
+	private long deadline;				//System.nanoTime() at which the time runs out. Set by start().
+	private volatile boolean cancelled;	//Set by cancel(), from any thread
+
+	/**
+	 * No-arg constructor. No limits, but the search can still be cancelled.
+	 */
+	public SearchBudget() {
+		this(0, 0);
+	}
+
+	/**
+	 * 2-arg constructor.
+	 * @param maxMillis the max. no. of milliseconds the search may run for, or 0 for no limit
+	 * @param maxNodes the max. no. of boards the search may expand, or 0 for no limit
+	 */
+	public SearchBudget(long maxMillis, long maxNodes) {
+		if (maxMillis < 0 || maxNodes < 0) throw new IllegalArgumentException("Limits can't be negative");
+		this.maxMillis = maxMillis;
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Method: cancel
+	 *         Stops the search at its next check. May be called from any thread, before or during the search.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Method: isCancelled
+	 * @return true if cancel() has been called
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Method: start
+	 *         Starts the clock. Called by a search engine as it starts.
+	 */
+	void start() {
+		if (maxMillis > 0) deadline = System.nanoTime() + maxMillis * 1000000;
+	}
+
+	/**
+	 * Method: isDue
+	 * @param expanded the no. of boards expanded so far
+	 * @return true if it is time to call check(), i.e. once every CHECK_INTERVAL expansions
+	 */
+	static boolean isDue(long expanded) {
+		return (expanded & (CHECK_INTERVAL - 1)) == 0;
+	}
+
+	/**
+	 * Method: check
+	 * @param expanded the no. of boards expanded so far, by every thread of the search
+	 * @param bound the fewest moves that a solution could have, as far as the search has got
+	 * @throws BudgetExceededException if the search has been cancelled or has run out of time or expansions
+	 */
+	void check(long expanded, int bound) {
+		if (cancelled) throw new BudgetExceededException(Reason.CANCELLED, bound);
+		if (maxNodes > 0 && expanded >= maxNodes) throw new BudgetExceededException(Reason.NODES, bound);
+		if (maxMillis > 0 && System.nanoTime() - deadline >= 0) throw new BudgetExceededException(Reason.TIME, bound);
+	}
+}
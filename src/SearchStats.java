@@ -0,0 +1,151 @@
+import java.util.Locale;
+
+/** Class: SearchStats.java
+ *
+ *  This Class - Counts the work done by a single search, so that searches can be compared and tuned. The search
+ *  engines add to the counts as they go (see AStar.java and the other search classes), and Solver.stats() returns
+ *  the counts of the search that solved its board.
+ *
+ *  A board is expanded when the boards one move away from it are generated, and generated each time a move from
+ *  an expanded board reaches it.
+ *  A duplicate is a generated board that was thrown away because it had already been reached by a path no longer
+ *  than the new one. The IDA* searches keep no record of the boards reached, so they never find duplicates, and
+ *  their frontier is the path being searched rather than a priority queue.
+ */
+public class SearchStats {
+	long expanded;				//No. of boards expanded
+	long generated;				//No. of boards generated
+	long duplicates;			//No. of generated boards thrown away as already reached
+	long peakFrontier;			//The most boards waiting to be expanded at once
+	long heuristicEvaluations;	//No. of times the heuristic estimated a board
+	long startTime;				//System.nanoTime() when the search started
+	long firstSolutionNanos = -1;	//Nanoseconds from the start to the first solution found, or -1 if none yet
+	long elapsedNanos;			//Nanoseconds from the start to the end of the search
+
+	/**
+	 * Method: start
+	 *         Starts the clock. Called by a search engine as it starts.
+	 */
+	void start() {
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Method: foundSolution
+	 *         Records the time of the first solution. Called by a search engine whenever it finds a solution, which for
+	 *         a search that goes on to look for a better one need not be the last.
+	 */
+	void foundSolution() {
+		if (firstSolutionNanos < 0) firstSolutionNanos = System.nanoTime() - startTime;
+	}
+
+	/**
+	 * Method: stop
+	 *         Stops the clock. Called by a search engine as it ends.
+	 */
+	void stop() {
+		elapsedNanos = System.nanoTime() - startTime;
+	}
+
+	/**
+	 * Method: frontierSize
+	 *         Records the current no. of boards waiting to be expanded, keeping the largest.
+	 */
+	void frontierSize(long size) {
+		if (size > peakFrontier) peakFrontier = size;
+	}
+
+	/**
+	 * Method: add
+	 *         Adds the counts of a part of the search done separately, e.g. by another thread, to these.
+	 *         The peak frontier is left to the caller, since how the parts' frontiers add up depends on the search.
+	 * @param other the other part's counts. Its times and peak frontier are ignored.
+	 */
+	void add(SearchStats other) {
+		expanded += other.expanded;
+		generated += other.generated;
+		duplicates += other.duplicates;
+		heuristicEvaluations += other.heuristicEvaluations;
+	}
+
+	/**
+	 * Method: expanded
+	 * @return the no. of boards expanded
+	 */
+	public long expanded() {
+		return expanded;
+	}
+
+	/**
+	 * Method: generated
+	 * @return the no. of boards generated
+	 */
+	public long generated() {
+		return generated;
+	}
+
+	/**
+	 * Method: duplicates
+	 * @return the no. of generated boards thrown away as already reached
+	 */
+	public long duplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * Method: peakFrontier
+	 * @return the most boards waiting to be expanded at once
+	 */
+	public long peakFrontier() {
+		return peakFrontier;
+	}
+
+	/**
+	 * Method: heuristicEvaluations
+	 * @return the no. of times the heuristic estimated a board
+	 */
+	public long heuristicEvaluations() {
+		return heuristicEvaluations;
+	}
+
+	/**
+	 * Method: firstSolutionMillis
+	 * @return the milliseconds from the start of the search to the first solution found, or -1 if none was found
+	 */
+	public double firstSolutionMillis() {
+		return (firstSolutionNanos < 0) ? -1 : firstSolutionNanos / 1e6;
+	}
+
+	/**
+	 * Method: elapsedMillis
+	 * @return the milliseconds that the search took
+	 */
+	public double elapsedMillis() {
+		return elapsedNanos / 1e6;
+	}
+
+	/**
+	 * Method: nodesPerSecond
+	 * @return the no. of boards expanded per second, or 0 if the search took no measurable time
+	 */
+	public double nodesPerSecond() {
+		return (elapsedNanos == 0) ? 0 : expanded * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Method: toJson
+	 * @return the counts as a single-line JSON object, e.g. for a dashboard
+	 */
+	public String toJson() {
+		return String.format(Locale.ROOT, "{\"expanded\":%d,\"generated\":%d,\"duplicates\":%d,"
+				+ "\"peakFrontier\":%d,\"heuristicEvaluations\":%d,\"firstSolutionMillis\":%.3f,"
+				+ "\"elapsedMillis\":%.3f,\"nodesPerSecond\":%.0f}",
+				expanded, generated, duplicates, peakFrontier, heuristicEvaluations,
+				firstSolutionMillis(), elapsedMillis(), nodesPerSecond());
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+}
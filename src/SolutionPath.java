@@ -0,0 +1,78 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/** Class: SolutionPath.java
+ *
+ *  This Class - The sequence of boards in a solution, stored as nothing more than the original board and one byte per
+ *  move (see Board.moveBlank()). The boards themselves are created one at a time, by replaying the moves, as the
+ *  solution is iterated over, so a long solution doesn't keep a Board object per move alive.
+ */
+public class SolutionPath implements Iterable<Board> {
+	static final String MOVE_LETTERS = "UDLR";	//The letter for each of Board.UP/DOWN/LEFT/RIGHT. See moveString().
+
+	private final Board initial;	//The original board
+	private final byte[] moves;		//The directions in which the empty spot moves, in order
+
+	/**
+	 * 2-arg constructor.
+	 * @param initial the original board
+	 * @param moves the directions in which the empty spot moves, each one of Board.UP/DOWN/LEFT/RIGHT
+	 */
+	public SolutionPath(Board initial, byte[] moves) {
+		this.initial = initial;
+		this.moves = moves.clone();
+	}
+
+	/**
+	 * Method: length
+	 * @return the no. of moves in the solution
+	 */
+	public int length() {
+		return moves.length;
+	}
+
+	/**
+	 * Method: moves
+	 * @return a copy of the directions in which the empty spot moves
+	 */
+	public byte[] moves() {
+		return moves.clone();
+	}
+
+	/**
+	 * Method: moveString
+	 * @return the solution as one letter per move: U, D, L or R for the direction in which the empty spot moves
+	 *         (so U means that the block above the empty spot slides down into it). The empty string if the original
+	 *         board is already solved.
+	 */
+	public String moveString() {
+		StringBuilder sb = new StringBuilder(moves.length);
+		for (byte direction : moves) sb.append(MOVE_LETTERS.charAt(direction));
+		return sb.toString();
+	}
+
+	/**
+	 * Method: iterator
+	 * @return an iterator over the boards in the solution, from the original board to the goal board
+	 */
+	@Override
+	public Iterator<Board> iterator() {
+		return new Iterator<Board>() {
+			private Board current;		//The board returned last
+			private int returned = 0;	//The no. of boards returned so far
+
+			@Override
+			public boolean hasNext() {
+				return returned <= moves.length;
+			}
+
+			@Override
+			public Board next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				current = (returned == 0) ? initial : current.moveBlank(moves[returned - 1]);
+				returned++;
+				return current;
+			}
+		};
+	}
+}
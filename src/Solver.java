@@ -1,4 +1,8 @@
-import java.util.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /** Class: Solver.java
  *  @author Yury Park
@@ -11,33 +15,39 @@ public class Solver {
 	private final boolean debugOn = false;
 	private boolean isSolvable;		//Is a given puzzle solvable or not?
 	private Node initialBoard;		//The given puzzle
-	private Node initialBoardTwin;	//The given puzzle board with two of its blocks swapped. Either the orig. or the "twin" will be solvable, not both.
 	private int totalNumOfMovesForSolution;	//self-explanatory
-	private Iterable<Board> solutionST;		//Solution key
+	private SolutionPath solutionST;		//Solution key
+	private SearchStats stats;				//The work done by the search
+	private boolean isBudgetExceeded;		//Was the search stopped by its SearchBudget before it was solved?
+	private SearchBudget.Reason budgetExceededReason;	//Why, if so
+	private int lowerBound;					//The fewest moves a solution could have, as far as the search got
+	private double suboptimalityBound;		//The solution has at most this many times the fewest moves possible
 
 	/**
 	 * Inner class. A private wrapper class for the Board.java object.
+	 * Once a Node has been expanded, its Board is let go of. From then on the Node only serves to record the move
+	 * that led to it, and the boards of the solution are replayed from the original board at the end (see SolutionPath).
 	 * @author Yury Park
 	 */
 	private class Node implements Comparable<Node> {
-		private Board board;
+		private Board board;			//null once this Node has been expanded
 		private int distanceSoFar;		//The no. of moves made so far to get to this board
 		private int estTotalCost;		//The A* heuristic using Manhattan distance.
+		private byte direction;			//The direction the empty spot moved to get here from the parent, or -1
 		private Node parent;			//Parent Node. Used to construct solution path.
-		private boolean isTwin;			//Whether this board is a "twin" of the original or a descendant of a twin board.
 
 		/**
 		 * 4-arg constructor.
 		 * @param b 			Given board
 		 * @param distanceSoFar The moves made so far to get to this board.
+		 * @param direction		The direction the empty spot moved to get here from the parent, or -1 if none.
 		 * @param parent		This board's parent board.
-		 * @param isTwin		Whether this board is a twin or a descendant of a twin.
 		 */
-		Node(Board b, int distanceSoFar, Node parent, boolean isTwin) {
+		Node(Board b, int distanceSoFar, int direction, Node parent) {
 			this.board = b;
 			this.distanceSoFar = distanceSoFar;
+			this.direction = (byte)direction;
 			this.parent = parent;
-			this.isTwin = isTwin;
 		}
 
 		/**
@@ -56,85 +66,269 @@ public class Solver {
 	//end private class Node implements Comparable<Node>
 
 	/**
-	 * 1-arg constructor.
+	 * The search algorithms that Solver can use.
+	 * ASTAR keeps every generated board in a priority queue. BUCKET_ASTAR is the same search with the queue replaced
+	 * by buckets, one per estimated total cost (see BucketOpenList.java).
+	 * IDASTAR (Iterative-Deepening A*) re-searches depth-first with a growing f-cost bound instead, so its memory use
+	 * only grows with the solution length.
+	 * PARALLEL_IDASTAR is IDASTAR with the search tree split up among all available processors. HDASTAR (Hash
+	 * Distributed A*) is ASTAR with the boards divided up among all available processors.
+	 * BIDIRECTIONAL searches from the given board and from the goal at once, until the two searches meet.
+	 * SMASTAR (Simplified Memory-bounded A*) is ASTAR that forgets its worst boards instead of running out of memory,
+	 * keeping no more than half of the max. heap's worth (see SMAStar.java).
+	 * ANYTIME finds a solution with weighted A* first, then shorter ones until it is optimal. If its budget runs out
+	 * before then, the best solution so far is kept instead (see suboptimalityBound() and AnytimeAStar.java).
+	 */
+	public enum Algorithm { ASTAR, BUCKET_ASTAR, IDASTAR, PARALLEL_IDASTAR, HDASTAR, BIDIRECTIONAL, SMASTAR, ANYTIME }
+
+	/**
+	 * 1-arg constructor. Uses the A* algorithm.
 	 * @param initial Given puzzle board.
 	 */
 	public Solver(Board initial) {
+		this(initial, Algorithm.ASTAR);
+	}
+
+	/**
+	 * 2-arg constructor. Uses the Manhattan distance as the heuristic.
+	 * @param initial Given puzzle board.
+	 * @param algorithm The search algorithm to use.
+	 */
+	public Solver(Board initial, Algorithm algorithm) {
+		this(initial, algorithm, null);
+	}
+
+	/**
+	 * 3-arg constructor. No limits on the search.
+	 * NOTE: Boards larger than 4 x 4 are always solved by A* with the Manhattan distance (see solve()).
+	 * @param initial Given puzzle board.
+	 * @param algorithm The search algorithm to use.
+	 * @param heuristic The heuristic to use, e.g. a PatternDatabase, or null for the Manhattan distance.
+	 *                  Must have the same dimension as the board.
+	 */
+	public Solver(Board initial, Algorithm algorithm, Heuristic heuristic) {
+		this(initial, algorithm, heuristic, new SearchBudget());
+	}
+
+	/**
+	 * 4-arg constructor.
+	 * NOTE: Boards larger than 4 x 4 are always solved by A* with the Manhattan distance (see solve()).
+	 * @param initial Given puzzle board.
+	 * @param algorithm The search algorithm to use.
+	 * @param heuristic The heuristic to use, e.g. a PatternDatabase, or null for the Manhattan distance.
+	 *                  Must have the same dimension as the board.
+	 * @param budget The limits on the search. If it runs out first, isBudgetExceeded() returns true.
+	 */
+	public Solver(Board initial, Algorithm algorithm, Heuristic heuristic, SearchBudget budget) {
 		this.isSolvable = false;										//Initialize this as false
-		this.initialBoard = new Node(initial, 0, null, false);			//Initialize wrapper class
-		this.initialBoardTwin = new Node(initial.twin(), 0, null, true);//Initialize wrapper class for twin board
+		this.initialBoard = new Node(initial, 0, -1, null);				//Initialize wrapper class
 		this.solutionST = null;											//Initialize solution path
 		this.totalNumOfMovesForSolution = -1;							//Initialize as -1, indicating that it's unsolvable
+		this.stats = new SearchStats();									//No search at all, unless replaced below
+		this.isBudgetExceeded = false;
+		this.budgetExceededReason = null;
+		this.lowerBound = 0;
+		this.suboptimalityBound = 1;
 
 		if (debugOn) {
 			System.out.println("Starting board:");
 			System.out.println(initial);
 		}
 
+		/* Half of all boards can never be solved. The parity check finds out which half this one is in without
+		 * any searching, so every search below can assume the goal is reachable. */
+		if (!initial.isSolvable()) return;
+
+		if (initial.dimension() > PackedBoard.MAX_DIMENSION && heuristic != null) {
+			throw new IllegalArgumentException("Heuristics are only supported for boards up to 4 x 4");
+		}
+
+		/* A search stopped by its budget throws, leaving no solution but a lower bound on its length. */
+		try {
+			search(initial, algorithm, heuristic, budget);	//custom method
+		}
+		catch (BudgetExceededException e) {
+			this.isBudgetExceeded = true;
+			this.budgetExceededReason = e.reason();
+			this.lowerBound = e.bound();
+		}
+	}
+	//end public Solver
+
+	/**
+	 * Method: search
+	 *         Runs the given search algorithm on the given solvable board, recording the solution and the stats.
+	 * @param initial the given puzzle board
+	 * @param algorithm the search algorithm to use
+	 * @param heuristic the heuristic to use, or null for the Manhattan distance
+	 * @param budget the limits on the search
+	 * @throws BudgetExceededException if the budget runs out first
+	 */
+	private void search(Board initial, Algorithm algorithm, Heuristic heuristic, SearchBudget budget) {
+		/* Boards up to 4 x 4 are searched as packed longs (see AStar.java, IDAStar.java and the other
+		 * search classes). Larger ones use solve() below. The stats are taken before the search starts, so
+		 * that they are kept even if the budget runs out. */
+		if (initial.dimension() <= PackedBoard.MAX_DIMENSION) {
+			if (heuristic == null) heuristic = new ManhattanHeuristic(initial.dimension());
+
+			switch (algorithm) {
+			case IDASTAR:
+				solveIDAStar(initial, heuristic, budget);	//custom method
+				break;
+			case PARALLEL_IDASTAR:
+				int threads = Runtime.getRuntime().availableProcessors();
+				ParallelIDAStar parallelIDAStar = new ParallelIDAStar(initial, heuristic, threads,
+						ParallelIDAStar.DEFAULT_SPLIT_DEPTH, budget);
+				stats = parallelIDAStar.stats();
+				setSolution(initial, parallelIDAStar.solve());	//custom method
+				break;
+			case HDASTAR:
+				threads = Runtime.getRuntime().availableProcessors();
+				HashDistributedAStar hdaStar = new HashDistributedAStar(initial, heuristic, threads, budget);
+				stats = hdaStar.stats();
+				setSolution(initial, hdaStar.solve());
+				break;
+			case BIDIRECTIONAL:
+				BidirectionalSearch bidirectional = new BidirectionalSearch(initial, heuristic, budget);
+				stats = bidirectional.stats();
+				setSolution(initial, bidirectional.solve());
+				break;
+			case SMASTAR:
+				int maxNodes = SMAStar.maxNodesFor(Runtime.getRuntime().maxMemory() / 2);
+				SMAStar smaStar = new SMAStar(initial, heuristic, maxNodes, budget);
+				stats = smaStar.stats();
+				setSolution(initial, smaStar.solve());
+				break;
+			case ANYTIME:
+				AnytimeAStar anytime = new AnytimeAStar(initial, heuristic, AnytimeAStar.DEFAULT_WEIGHT,
+						AnytimeAStar.DEFAULT_STEP, budget);
+				stats = anytime.stats();
+				setSolution(initial, anytime.solve());
+				this.suboptimalityBound = anytime.bound();
+				this.lowerBound = anytime.lowerBound();
+				break;
+			default:	//ASTAR or BUCKET_ASTAR
+				OpenList open = (algorithm == Algorithm.BUCKET_ASTAR) ? new BucketOpenList() : new HeapOpenList();
+				AStar aStar = new AStar(initial, heuristic, open, budget);
+				stats = aStar.stats();
+				setSolution(initial, aStar.solve());
+			}
+			return;
+		}
+
 		//MinPQ is a custom PriorityQueue class. Will always remove the "minimum" Node.
 		MinPQ<Node> pq = new MinPQ<Node>();
 		pq.insert(initialBoard);
-		pq.insert(initialBoardTwin);
-		solve(pq);		//custom method
+		solve(pq, budget);		//custom method
+	}
+	//end private void search
+
+	/**
+	 * Method: solveIDAStar
+	 *         Finds an optimal solution for the given puzzle board by using Iterative-Deepening A* (see IDAStar.java).
+	 * @param initial the given puzzle board
+	 * @param heuristic the heuristic to use
+	 * @param budget the limits on the search
+	 */
+	private void solveIDAStar(Board initial, Heuristic heuristic, SearchBudget budget) {
+		IDAStar idaStar = new IDAStar(initial, heuristic, budget);
+		stats = idaStar.stats();
+		setSolution(initial, idaStar.solve());	//custom method
+	}
+	//end private void solveIDAStar
+
+	/**
+	 * Method: setSolution
+	 *         Records the result of a search that produced its solution as a sequence of moves.
+	 * @param initial the given puzzle board
+	 * @param moves the directions in which the empty spot moves (see Board.moveBlank())
+	 */
+	private void setSolution(Board initial, byte[] moves) {
+
+		this.isSolvable = true;
+		this.totalNumOfMovesForSolution = moves.length;
+		this.lowerBound = moves.length;
+
+		/* The boards of the solution path are only created, by replaying the moves from the original board, as the
+		 * path is iterated over. */
+		this.solutionST = new SolutionPath(initial, moves);
 	}
-	//end public Solver
 
 	/**
 	 * Method: solve
 	 *         Finds an optimal solution for the given puzzle board, by using the A-Star (A*, AStar) algorithm.
+	 *         Only used for boards larger than 4 x 4; see AStar.java for smaller ones.
 	 * @param pq the given PriorityQueue, containing Nodes, the wrapper class for Board objects.
+	 * @param budget the limits on the search
+	 * @throws BudgetExceededException if the budget runs out first
 	 */
-	private void solve(MinPQ<Node> pq) {
+	private void solve(MinPQ<Node> pq, SearchBudget budget) {
+		stats.start();
+		budget.start();
+		Board initial = pq.min().board;	//The original board. Its Node lets go of it once expanded.
 		Node current = pq.delMin();		//Pop out the "minimum" node.
 
+		/* The fewest moves with which each board has been reached so far. A board reached again by a path that is
+		 * no shorter is thrown away instead of being searched all over again from there. */
+		GridHashTable reached = new GridHashTable(initial.dimension());
+		reached.put(initial, 0);
+
 		/* Keep going until we found the solution */
 		while (!current.board.isGoal()) {
-			Iterable<Board> neighbors = current.board.neighbors();	//custom method in Board class. Get all of the board's "neighbors."
+			Board board = current.board;
+			current.board = null;		//Only the move that led to this Node is needed from now on
+			int distance = current.distanceSoFar + 1;
+			if (SearchBudget.isDue(++stats.expanded)) {
+				try {
+					budget.check(stats.expanded, current.estTotalCost);	//Nodes come out in order of estTotalCost
+				}
+				catch (BudgetExceededException e) {
+					stats.stop();
+					throw e;
+				}
+			}
 
 			/* Go thru each neighboring Board object */
-			for (Board neighbor : neighbors) {
+			for (int direction = Board.UP; direction <= Board.RIGHT; direction++) {
+				//We will ignore a neighbor if it equals the previous board state, i.e. if the move undoes the previous
+				//one. This optimization is crucial for performance.
+				if (current.parent != null && direction == (current.direction ^ 1)) continue;
+				if (Board.blankTarget(board.blankIndex(), direction, board.dimension()) < 0) continue;
+
 				/* Create wrapper class for each Board object. Be sure to update the distanceSoFar attribute in the
 				 * parameter as given below. */
-				Node neighborNode = new Node(neighbor, current.distanceSoFar + 1, current, current.isTwin);
+				Board neighbor = board.moveBlank(direction);
+				stats.generated++;
+				if (!reached.putIfLower(neighbor, distance)) {	//Not a shorter path
+					stats.duplicates++;
+					continue;
+				}
+				Node neighborNode = new Node(neighbor, distance, direction, current);
 
 				/* Update the A* distance heuristic. manhattan() is a custom method in Board class. */
 				neighborNode.estTotalCost = neighborNode.distanceSoFar + neighborNode.board.manhattan();
-
-				//We will ignore a neighbor if it equals the previous board state. This optimization is crucial for performance.
-				if (current.parent == null || !neighborNode.board.equals(current.parent.board)) pq.insert(neighborNode);
+				pq.insert(neighborNode);
+				stats.heuristicEvaluations++;
 			}
 			//end for
-			current = pq.delMin();
-		}
-		//end while
+			stats.frontierSize(pq.size());
 
-		/* If the twin board found a solution, then the ORIGINAL board is not solvable. */
-		if (current.isTwin) {
-			this.isSolvable = false;
-			this.totalNumOfMovesForSolution = -1;
-			this.solutionST = null;
+			/* Pop out the next "minimum" node, skipping any that were superseded by a shorter path to the same board. */
+			do {
+				current = pq.delMin();
+			} while (current.distanceSoFar > reached.get(current.board, Integer.MAX_VALUE));
 		}
-		else {
-			this.isSolvable = true;
-			this.totalNumOfMovesForSolution = current.estTotalCost;
-
-			/* Construct a solution path by starting from the solution Board all the way down to the original board. */
-			Stack<Board> solutionInReverseST = new Stack<Board>();
-			while (!current.equals(this.initialBoard)) {
-				solutionInReverseST.push(current.board);
-				current = current.parent;
-			}
-			solutionInReverseST.push(current.board);	//Finally, push in the original board to the solution path.
-
-			/* Now pop the Boards back out in reverse order from the Stack, and save it to the solution path. */
-			LinkedList<Board> solutionQ = new LinkedList<Board>();
-			while (!solutionInReverseST.isEmpty()) {
-				solutionQ.add(solutionInReverseST.pop());
-			}
+		//end while
+		stats.foundSolution();
 
-			this.solutionST = solutionQ;	//Saved to solution path.
+		/* Construct a solution path by collecting the moves from the solution Node all the way up to the original
+		 * board, in reverse order. */
+		byte[] moves = new byte[current.distanceSoFar];
+		for (Node n = current; n.parent != null; n = n.parent) {
+			moves[n.distanceSoFar - 1] = n.direction;
 		}
-		//end if
+		setSolution(initial, moves);	//custom method
+		stats.stop();
 	}
 	//end private void solve
 
@@ -146,6 +340,41 @@ public class Solver {
 		return this.isSolvable;
 	}
 
+	/**
+	 * Method: isBudgetExceeded
+	 * @return whether the search was stopped by its SearchBudget before it found a solution. If so, isSolvable()
+	 *         returns false even though the board is solvable, and lowerBound() tells how far the search got.
+	 */
+	public boolean isBudgetExceeded() {
+		return this.isBudgetExceeded;
+	}
+
+	/**
+	 * Method: budgetExceededReason
+	 * @return why the search was stopped by its SearchBudget (time, expansions or cancel()), or null if it wasn't
+	 */
+	public SearchBudget.Reason budgetExceededReason() {
+		return this.budgetExceededReason;
+	}
+
+	/**
+	 * Method: lowerBound
+	 * @return the fewest moves that a solution could have, as far as the search got before its budget ran out;
+	 *         moves() if solved optimally, or 0 if the board is unsolvable.
+	 */
+	public int lowerBound() {
+		return this.lowerBound;
+	}
+
+	/**
+	 * Method: suboptimalityBound
+	 * @return how many times the fewest moves possible moves() may be at most: 1 if the solution is optimal, which
+	 *         it always is unless the ANYTIME search ran out of budget first (see AnytimeAStar.bound()).
+	 */
+	public double suboptimalityBound() {
+		return this.suboptimalityBound;
+	}
+
 	/**
 	 * Method: moves
 	 * @return the min. number of moves to solve initial board; -1 if unsolvable.
@@ -162,35 +391,105 @@ public class Solver {
 		return this.solutionST;
 	}
 
+	/**
+	 * Method: moveString
+	 * @return a shortest solution as a string of U/D/L/R moves of the empty spot (see SolutionPath.moveString());
+	 *         null if unsolvable.
+	 */
+	public String moveString() {
+		return (this.solutionST == null) ? null : this.solutionST.moveString();
+	}
+
+	/**
+	 * Method: stats
+	 * @return the work done by the search (see SearchStats.java). All zeros for an unsolvable board, which is
+	 *         recognized without searching.
+	 */
+	public SearchStats stats() {
+		return this.stats;
+	}
+
+	/**
+	 * Method: heuristicFor
+	 * @param name MANHATTAN, LINEAR (Manhattan distance plus linear conflicts), WALKING (walking distance), or the
+	 *             partition of a pattern database such as 6-6-3. Walking distance tables and pattern databases are
+	 *             saved to a file by the first run (e.g. 6-6-3.pdb), and loaded from there by later runs.
+	 * @param N the dimension of the board
+	 * @return the named heuristic
+	 * @throws IOException if a file of tables can't be loaded or saved
+	 */
+	static Heuristic heuristicFor(String name, int N) throws IOException {
+		switch (name.toUpperCase()) {
+			case "MANHATTAN":	return new ManhattanHeuristic(N);
+			case "LINEAR":		return new LinearConflictHeuristic(N);
+			case "WALKING":		return WalkingDistance.forDimension(N);
+			default:			return PatternDatabase.forPartition(name);
+		}
+	}
+
 	/**
 	 * Method: main
-	 * @param args
+	 * @param args the puzzle file, then optionally the algorithm and the heuristic. The option -moves may be given
+	 *             anywhere to print only the solution's moves (see moveString()) instead of every board along the way,
+	 *             and -boards (the default) to print the boards after all. The option -stats prints the work done
+	 *             by the search (see SearchStats.toJson()) as a line of its own after the rest. The options
+	 *             -timeout=MILLIS and -nodes=NODES limit the search (see SearchBudget.java).
 	 */
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 		long startTime = System.currentTimeMillis();	//Optional: for time testing
 
+		/* Separate the options from the other arguments. */
+		boolean movesOnly = false, printStats = false;
+		long maxMillis = 0, maxNodes = 0;	//No limits unless given
+		List<String> params = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.equalsIgnoreCase("-moves")) movesOnly = true;
+			else if (arg.equalsIgnoreCase("-boards")) movesOnly = false;
+			else if (arg.equalsIgnoreCase("-stats")) printStats = true;
+			else if (arg.startsWith("-timeout=")) maxMillis = Long.parseLong(arg.substring(9));
+			else if (arg.startsWith("-nodes=")) maxNodes = Long.parseLong(arg.substring(7));
+			else params.add(arg);
+		}
+
 		// Create initial board from file
 		// End user will input something like: puzzle50.txt
-		In in = new In(args[0]);
-		int N = in.readInt();
-		int[][] blocks = new int[N][N];
-		for (int i = 0; i < N; i++)
-			for (int j = 0; j < N; j++)
-				blocks[i][j] = in.readInt();
-		Board initial = new Board(blocks);
+		Board initial = PuzzleReader.read(Paths.get(params.get(0)));
+		int N = initial.dimension();
+
+		// Optionally, the algorithm can be given as the 2nd argument, e.g. puzzle50.txt IDASTAR
+		Algorithm algorithm = (params.size() > 1) ? Algorithm.valueOf(params.get(1).toUpperCase()) : Algorithm.ASTAR;
+
+		// Optionally, the heuristic can be given as the 3rd argument, e.g. puzzle50.txt IDASTAR 6-6-3
+		Heuristic heuristic = (params.size() > 2) ? heuristicFor(params.get(2), N) : null;
 
 		// solve the puzzle
-		Solver solver = new Solver(initial);
+		Solver solver = new Solver(initial, algorithm, heuristic, new SearchBudget(maxMillis, maxNodes));
 
 		// print solution to standard output
+		if (solver.isBudgetExceeded())
+			StdOut.println("Search limit reached; no solution has fewer than " + solver.lowerBound() + " moves");
+		else if (movesOnly)
+			StdOut.println(solver.isSolvable() ? solver.moveString() : "No solution possible");
+		if (movesOnly || solver.isBudgetExceeded()) {
+			if (printStats) StdOut.println(solver.stats().toJson());
+			return;
+		}
 		if (!solver.isSolvable())
 			StdOut.println("No solution possible");
 		else {
-			StdOut.println("Minimum number of moves = " + solver.moves());
+			if (solver.suboptimalityBound() > 1)	//An ANYTIME search that ran out of budget
+				StdOut.println(String.format(Locale.ROOT, "Number of moves = %d, at most %.2f times the minimum "
+						+ "(no solution has fewer than %d moves)", solver.moves(), solver.suboptimalityBound(), solver.lowerBound()));
+			else
+				StdOut.println("Minimum number of moves = " + solver.moves());
+			StdOut.println("Moves of the empty spot: " + solver.moveString());
+			StringBuilder sb = new StringBuilder();		//Printed all at once, since there may be many boards
 			for (Board board : solver.solution())
-				System.out.println(board + "\n");
+				sb.append(board).append("\n\n");
+			System.out.print(sb);
 		}
 		System.out.println("Elapsed time (in milliseconds): " + (System.currentTimeMillis() - startTime));
+		if (printStats) System.out.println(solver.stats().toJson());
 	}
 	//end main
 }
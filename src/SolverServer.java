@@ -0,0 +1,379 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** Class: SolverServer.java
+ *
+ *  This Class - Keeps a solver running, so that puzzles can be solved one after another without starting a new JVM,
+ *  loading the heuristic's tables (see PatternDatabase.java) and warming up the JIT compiler for each one.
+ *  Puzzles are read one per line, either from standard input or from connections to a TCP port on the local host,
+ *  and each line gets one line back, in the same order.
+ *
+ *  Usage: SolverServer [-port=PORT] [-algorithm=ALGORITHM] [-heuristic=HEURISTIC] [-threads=THREADS] [-timeout=MILLIS]
+ *                      [-nodes=NODES]
+ *  Without a port, requests are read from standard input and answered on standard output.
+ *
+ *  A request is a puzzle in the same format as the puzzle files, on a single line: N, then the N x N blocks row by
+ *  row, with 0 for the empty spot (e.g. "2 1 2 0 3"). The reply is one of:
+ *      OK moves solution		the min. no. of moves, then the moves (see Solver.moveString()) unless there are none
+ *      BOUNDED moves bound lower solution	an ANYTIME search's best solution when the time ran out: it has at most bound
+ *      				times the min. no. of moves, and no solution has fewer than lower moves
+ *      UNSOLVABLE
+ *      TIMEOUT				no solution within the time limit
+ *      LIMIT bound			the search expanded NODES boards without a solution; none has fewer than bound moves
+ *      BUSY				too many puzzles are already being solved or waiting
+ *      ERROR message			e.g. the line is not a valid puzzle
+ *
+ *  Requests are solved as soon as they are read, without waiting for the replies to the ones before, whether they
+ *  come from standard input or a connection. The replies are written in the order of the requests, each as soon as
+ *  it and the ones before it are ready. At most THREADS puzzles are solved at a time, from every input together,
+ *  and at most as many more wait for their turn; any others are turned away as BUSY. The time limit of a request
+ *  counts from when it was read. Its search is stopped a little before then (a tenth of MILLIS, at most a second),
+ *  so that an ANYTIME search can still reply with its best solution so far; a search that times out anyway is
+ *  cancelled (see SearchBudget.java), so that its thread is soon free for the next puzzle.
+ */
+public class SolverServer {
+	private static final long DEFAULT_TIMEOUT = 60000;	//Milliseconds
+	private static final int PENDING_PER_THREAD = 4;	//Requests per thread read ahead of the oldest reply not yet written
+	private static final long MAX_SEARCH_MARGIN = 1000;	//Milliseconds. See searchMargin().
+
+	private final Solver.Algorithm algorithm;
+	private final String heuristicName;		//See Solver.heuristicFor(), or null for the Manhattan distance
+	private final long timeoutMillis;		//The longest a request may wait and be solved for
+	private final long maxNodes;			//The most boards a search may expand, or 0 for no limit
+	private final ThreadPoolExecutor executor;	//Solves the puzzles
+	private final int threads;				//The max. no. of puzzles to solve at a time
+	private final ConcurrentMap<Integer, Heuristic> heuristics = new ConcurrentHashMap<Integer, Heuristic>();	//Loaded once, by dimension
+
+	/**
+	 * 4-arg constructor. No limit on the no. of boards a search may expand.
+	 * @param algorithm the search algorithm to use
+	 * @param heuristicName the heuristic to use (see Solver.heuristicFor()), or null for the Manhattan distance
+	 * @param threads the max. no. of puzzles to solve at a time
+	 * @param timeoutMillis the longest a request may wait and be solved for, in milliseconds
+	 */
+	public SolverServer(Solver.Algorithm algorithm, String heuristicName, int threads, long timeoutMillis) {
+		this(algorithm, heuristicName, threads, timeoutMillis, 0);
+	}
+
+	/**
+	 * 5-arg constructor.
+	 * @param algorithm the search algorithm to use
+	 * @param heuristicName the heuristic to use (see Solver.heuristicFor()), or null for the Manhattan distance
+	 * @param threads the max. no. of puzzles to solve at a time
+	 * @param timeoutMillis the longest a request may wait and be solved for, in milliseconds
+	 * @param maxNodes the most boards a search may expand, or 0 for no limit
+	 */
+	public SolverServer(Solver.Algorithm algorithm, String heuristicName, int threads, long timeoutMillis, long maxNodes) {
+		if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+		if (timeoutMillis < 1) throw new IllegalArgumentException("The timeout must be positive");
+		if (maxNodes < 0) throw new IllegalArgumentException("The node limit can't be negative");
+		this.algorithm = algorithm;
+		this.heuristicName = heuristicName;
+		this.timeoutMillis = timeoutMillis;
+		this.maxNodes = maxNodes;
+		this.threads = threads;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(threads), SolverServer::daemon);
+	}
+
+	/**
+	 * Inner class. A request that has been read, and its reply once it is ready.
+	 */
+	private static class Pending {
+		private final String reply;				//The reply, if it was known without solving (e.g. BUSY), or null
+		private final long deadline;			//System.nanoTime() at which the request times out
+		private Future<String> solution;		//The reply of the search, if reply is null. Set once it is submitted.
+		private volatile SearchBudget budget;	//The limits on the search, once it has started
+		private volatile boolean abandoned;		//True once the reply is no longer waited for
+
+		Pending(String reply) {
+			this(reply, 0);
+		}
+
+		Pending(String reply, long deadline) {
+			this.reply = reply;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Method: start
+		 *         Called by the search as it starts, so that abandon() can stop it.
+		 * @param budget the limits on the search
+		 */
+		void start(SearchBudget budget) {
+			this.budget = budget;
+			if (abandoned) budget.cancel();		//abandon() may have run before budget was set
+		}
+
+		/**
+		 * Method: abandon
+		 *         Stops the search if it has started, or drops it if it's still waiting for its turn. A search that has
+		 *         started stops within CHECK_INTERVAL expansions (see SearchBudget.java).
+		 */
+		private void abandon() {
+			abandoned = true;
+			SearchBudget started = budget;
+			if (started != null) started.cancel();
+			solution.cancel(true);
+		}
+
+		/**
+		 * Method: await
+		 *         Waits for the reply until the request times out, and then abandons the search.
+		 * @return the reply
+		 */
+		String await() {
+			if (reply != null) return reply;
+			try {
+				return solution.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			}
+			catch (TimeoutException e) {
+				abandon();		//custom method
+				return "TIMEOUT";
+			}
+			catch (ExecutionException e) {
+				return "ERROR " + e.getCause();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				abandon();
+				return "ERROR interrupted";
+			}
+		}
+	}
+	//end private static class Pending
+
+	private static final Pending END = new Pending(null);	//Follows the last request from an input
+
+	/**
+	 * Method: daemon
+	 * @return a daemon thread for the given task, so that a search that has timed out doesn't keep the JVM running
+	 */
+	private static Thread daemon(Runnable task) {
+		Thread thread = new Thread(task);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Method: heuristicFor
+	 *         Loads the heuristic for the given dimension the first time it is needed, and returns the same one after.
+	 *         Boards larger than 4 x 4 always get the Manhattan distance (see Solver).
+	 * @param N the dimension of the board
+	 * @return the heuristic, or null for the Manhattan distance
+	 * @throws IOException if a file of tables can't be loaded or saved
+	 */
+	private Heuristic heuristicFor(int N) throws IOException {
+		if (heuristicName == null || N > PackedBoard.MAX_DIMENSION) return null;
+		try {
+			return heuristics.computeIfAbsent(N, n -> {	//Only puzzles of this dimension wait while its tables load
+				try {
+					return Solver.heuristicFor(heuristicName, n);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Method: searchMargin
+	 * @return how long before its request times out a search is stopped, in nanoseconds, so that an ANYTIME search
+	 *         has time to return its best solution so far before the reply is given up on
+	 */
+	private long searchMargin() {
+		return Math.min(timeoutMillis / 10, MAX_SEARCH_MARGIN) * 1000000;
+	}
+
+	/**
+	 * Method: solve
+	 *         Solves the puzzle of a request, with whatever time is left before the request times out, less the margin.
+	 * @param initial the board to solve
+	 * @param pending the request
+	 * @return the reply for it
+	 * @throws IOException if the heuristic's tables can't be loaded
+	 */
+	private String solve(Board initial, Pending pending) throws IOException {
+		long millisLeft = (pending.deadline - searchMargin() - System.nanoTime()) / 1000000;	//custom method
+		if (millisLeft < 1) return "TIMEOUT";	//Waited too long for its turn
+		SearchBudget budget = new SearchBudget(millisLeft, maxNodes);
+		pending.start(budget);
+		Solver solver = new Solver(initial, algorithm, heuristicFor(initial.dimension()), budget);
+		if (solver.isBudgetExceeded()) {	//Out of time (or cancelled at the timeout), or out of expansions
+			if (solver.budgetExceededReason() == SearchBudget.Reason.NODES) return "LIMIT " + solver.lowerBound();
+			return "TIMEOUT";
+		}
+		if (!solver.isSolvable()) return "UNSOLVABLE";
+		if (solver.suboptimalityBound() > 1) {	//An ANYTIME search ran out of time before it could prove its best optimal
+			return String.format(Locale.ROOT, "BOUNDED %d %.2f %d %s", solver.moves(), solver.suboptimalityBound(),
+					solver.lowerBound(), solver.moveString());
+		}
+		return "OK " + solver.moves() + (solver.moves() > 0 ? " " + solver.moveString() : "");
+	}
+
+	/**
+	 * Method: handle
+	 *         Solves the puzzle in a single request, waiting at most the timeout for the reply.
+	 * @param line the request
+	 * @return the reply, or null for a blank line, which gets no reply
+	 */
+	public String handle(String line) {
+		Pending pending = submit(line);		//custom method
+		return (pending == null) ? null : pending.await();
+	}
+
+	/**
+	 * Method: submit
+	 *         Starts solving the puzzle in a single request, or queues it to be solved once a thread is free.
+	 * @param line the request
+	 * @return the request, whose reply can be waited for, or null for a blank line, which gets no reply
+	 */
+	private Pending submit(String line) {
+		if (line.trim().isEmpty()) return null;
+		long deadline = System.nanoTime() + timeoutMillis * 1000000;
+		final Board initial;
+		try {
+			initial = PuzzleReader.parse(line);
+		}
+		catch (IllegalArgumentException e) {
+			return new Pending("ERROR " + e.getMessage());
+		}
+
+		Pending pending = new Pending(null, deadline);
+		try {
+			pending.solution = executor.submit(() -> solve(initial, pending));	//custom method
+			return pending;
+		}
+		catch (RejectedExecutionException e) {
+			return new Pending("BUSY");
+		}
+	}
+
+	/**
+	 * Method: serve
+	 *         Answers every request from the given input until the input ends. Requests are read and solved while
+	 *         the replies to earlier ones are still being waited for on another thread, which writes them in order.
+	 * @param in the requests
+	 * @param out where to write the replies
+	 */
+	public void serve(In in, PrintWriter out) {
+		BlockingQueue<Pending> pending = new ArrayBlockingQueue<Pending>(threads * PENDING_PER_THREAD);
+		Thread writer = daemon(() -> {
+			try {
+				for (Pending next = pending.take(); next != END; next = pending.take()) {
+					out.println(next.await());
+					out.flush();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		writer.start();
+
+		try {
+			while (in.hasNextLine()) {
+				Pending next = submit(in.readLine());
+				if (next != null) pending.put(next);	//Waits while too many replies are still to be written
+			}
+			pending.put(END);
+			writer.join();		//Until every reply has been written
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			writer.interrupt();
+		}
+	}
+
+	/**
+	 * Method: listen
+	 *         Accepts connections on the given port of the local host, serving each on a thread of its own. Never returns.
+	 * @param port the TCP port
+	 * @throws IOException if the port can't be listened on
+	 */
+	public void listen(int port) throws IOException {
+		ExecutorService connections = Executors.newCachedThreadPool(SolverServer::daemon);
+		try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			System.err.println("Listening on " + server.getLocalSocketAddress());
+			while (true) {
+				Socket socket = server.accept();
+				connections.execute(() -> {
+					try (Socket s = socket) {
+						serve(new In(s), new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)));
+					}
+					catch (IOException e) {
+						System.err.println("Connection failed: " + e);
+					}
+				});
+			}
+		}
+		finally {
+			connections.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method: shutdown
+	 *         Stops accepting puzzles to solve.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Method: main
+	 * @param args see the usage above
+	 */
+	public static void main(String[] args) throws IOException {
+		Solver.Algorithm algorithm = Solver.Algorithm.ASTAR;
+		String heuristicName = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long timeout = DEFAULT_TIMEOUT;
+		long maxNodes = 0;
+		int port = -1;
+
+		for (String arg : args) {
+			if (arg.startsWith("-algorithm=")) algorithm = Solver.Algorithm.valueOf(arg.substring(11).toUpperCase());
+			else if (arg.startsWith("-heuristic=")) heuristicName = arg.substring(11);
+			else if (arg.startsWith("-threads=")) threads = Integer.parseInt(arg.substring(9));
+			else if (arg.startsWith("-timeout=")) timeout = Long.parseLong(arg.substring(9));
+			else if (arg.startsWith("-nodes=")) maxNodes = Long.parseLong(arg.substring(7));
+			else if (arg.startsWith("-port=")) port = Integer.parseInt(arg.substring(6));
+			else {
+				System.err.println("Usage: SolverServer [-port=PORT] [-algorithm=ALGORITHM] [-heuristic=HEURISTIC] "
+						+ "[-threads=THREADS] [-timeout=MILLIS] [-nodes=NODES]");
+				System.exit(1);
+			}
+		}
+
+		SolverServer server = new SolverServer(algorithm, heuristicName, threads, timeout, maxNodes);
+		if (port >= 0) server.listen(port);
+		else {
+			server.serve(new In(), new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+			server.shutdown();
+		}
+	}
+}
@@ -0,0 +1,278 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/** Class: WalkingDistance.java
+ *
+ *  This Class - The Walking Distance heuristic (devised by Ken'ichiro Takahashi). Looking only at rows, a board is
+ *  summarized by a table that counts, for each row, how many of its blocks belong in each row, plus the row of the
+ *  empty spot. A vertical move takes one block from the row above or below the empty spot into the empty spot's
+ *  row. The fewest such moves needed to reach the goal's table is the vertical walking distance; the horizontal one
+ *  is the same thing for columns. Their sum never overestimates, and unlike the Manhattan distance it accounts for
+ *  blocks getting in each other's way.
+ *
+ *  By symmetry, the columns of the goal board have the same counts as its rows, so a single table of distances,
+ *  found by a breadth-first search backwards from the goal, serves both directions. Each table of counts gets an
+ *  index, and a transition table gives the index after each possible move, so update() is two array lookups.
+ *  The heuristic state (see Heuristic.java) holds the vertical index in the upper 16 bits and the horizontal one in
+ *  the lower 16 bits.
+ *
+ *  The tables are saved to a file with save() and loaded back with load(). The file format (big-endian) is:
+ *      int magic ("WDT1"), int version, int N, int no. of tables of counts,
+ *      then for each table of counts in order of index: long code (see encode()), byte distance.
+ */
+public class WalkingDistance implements Heuristic {
+	private static final int MAGIC = 0x57445431;	//"WDT1"
+	private static final int VERSION = 1;
+	private static final int BITS = 3;		//Bits per count in a code. Counts go up to N <= 4.
+
+	private final int N;				//The dimension N of the N x N board
+	private final long[] codes;			//codes[index] is the table of counts with the given index, see encode()
+	private final byte[] distance;		//distance[index] is the walking distance of that table of counts
+	private final LongHashTable indexOf;	//Maps a code back to its index
+	private final int[] transitions;	//transitions[(index * 2 + up/down) * N + row] is the index after a move, or -1
+
+	/**
+	 * 1-arg constructor. Builds the tables.
+	 * @param N the dimension of the boards. Must be at most 4.
+	 */
+	public WalkingDistance(int N) {
+		this(N, null, null);
+	}
+
+	/**
+	 * 3-arg constructor.
+	 * @param N the dimension of the boards. Must be at most 4.
+	 * @param codes every table of counts, or null to find them by a breadth-first search
+	 * @param distance the walking distance of each table of counts, or null along with codes
+	 */
+	private WalkingDistance(int N, long[] codes, byte[] distance) {
+		if (N < 2 || N > PackedBoard.MAX_DIMENSION) throw new IllegalArgumentException("Unsupported dimension: " + N);
+		this.N = N;
+		this.indexOf = new LongHashTable();
+
+		if (codes == null) {	//Breadth-first search from the goal. The codes array doubles as the queue.
+			codes = new long[1024];
+			distance = new byte[1024];
+			int[][] counts = new int[N][N];
+			for (int row = 0; row < N; row++) counts[row][row] = N;
+			counts[N - 1][N - 1] = N - 1;	//The empty spot is in the last row of the goal board
+			codes[0] = encode(counts, N - 1);
+			indexOf.put(codes[0], 0);
+
+			int size = 1;
+			for (int head = 0; head < size; head++) {
+				int blankRow = decode(codes[head], counts);
+				for (int otherRow = blankRow - 1; otherRow <= blankRow + 1; otherRow += 2) {
+					if (otherRow < 0 || otherRow >= N) continue;
+					for (int goalRow = 0; goalRow < N; goalRow++) {
+						if (counts[otherRow][goalRow] == 0) continue;
+						long code = move(codes[head], otherRow, blankRow, goalRow);
+						if (indexOf.containsKey(code)) continue;
+
+						if (size == codes.length) {
+							codes = Arrays.copyOf(codes, size * 2);
+							distance = Arrays.copyOf(distance, size * 2);
+						}
+						codes[size] = code;
+						distance[size] = (byte)(distance[head] + 1);
+						indexOf.put(code, size++);
+					}
+				}
+			}
+			codes = Arrays.copyOf(codes, size);
+			distance = Arrays.copyOf(distance, size);
+		}
+		else {
+			for (int i = 0; i < codes.length; i++) indexOf.put(codes[i], i);
+		}
+		this.codes = codes;
+		this.distance = distance;
+
+		/* Every move from every table of counts. */
+		int[][] counts = new int[N][N];
+		this.transitions = new int[codes.length * 2 * N];
+		for (int index = 0; index < codes.length; index++) {
+			int blankRow = decode(codes[index], counts);
+			for (int down = 0; down <= 1; down++) {
+				int otherRow = (down == 0) ? blankRow - 1 : blankRow + 1;
+				for (int goalRow = 0; goalRow < N; goalRow++) {
+					int next = -1;
+					if (otherRow >= 0 && otherRow < N && counts[otherRow][goalRow] > 0) {
+						next = indexOf.get(move(codes[index], otherRow, blankRow, goalRow), -1);
+						if (next < 0) throw new IllegalStateException("Walking distance tables are incomplete");
+					}
+					transitions[(index * 2 + down) * N + goalRow] = next;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method: forDimension
+	 *         Loads the tables for the given dimension from the file walking-distance-&lt;N&gt;.wd in the current
+	 *         directory. If there is no such file, the tables are built and then saved to that file.
+	 * @param N the dimension of the boards
+	 * @return the heuristic
+	 * @throws IOException if the file exists but can't be loaded, or can't be saved
+	 */
+	public static WalkingDistance forDimension(int N) throws IOException {
+		Path file = Paths.get("walking-distance-" + N + ".wd");
+		if (Files.exists(file)) {
+			WalkingDistance wd = load(file);
+			if (wd.N != N) throw new IOException(file + " is for " + wd.N + " x " + wd.N + " boards");
+			return wd;
+		}
+		WalkingDistance wd = new WalkingDistance(N);
+		wd.save(file);
+		return wd;
+	}
+
+	/**
+	 * Method: save
+	 *         Writes the tables to a file in the format described above, under a temporary name first.
+	 * @param file the file to write
+	 * @throws IOException if the file can't be written
+	 */
+	public void save(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(N);
+			out.writeInt(codes.length);
+			for (int i = 0; i < codes.length; i++) {
+				out.writeLong(codes[i]);
+				out.writeByte(distance[i]);
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Method: load
+	 * @param file a file written by save()
+	 * @return the heuristic
+	 * @throws IOException if the file can't be read or is not a valid walking distance file
+	 */
+	public static WalkingDistance load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) throw new IOException(file + " is not a walking distance file");
+			int version = buffer.getInt();
+			if (version != VERSION) throw new IOException(file + " has unsupported version " + version);
+			int N = buffer.getInt();
+			int count = buffer.getInt();
+			if (count < 1 || buffer.remaining() != count * 9L) throw new IOException(file + " is truncated or corrupt");
+
+			long[] codes = new long[count];
+			byte[] distance = new byte[count];
+			for (int i = 0; i < count; i++) {
+				codes[i] = buffer.getLong();
+				distance[i] = buffer.get();
+			}
+			try {
+				return new WalkingDistance(N, codes, distance);
+			}
+			catch (IllegalArgumentException | IllegalStateException e) {
+				throw new IOException(file + " is corrupt: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Method: encode
+	 * @param counts counts[row][goalRow] is the no. of blocks in the row that belong in goalRow
+	 * @param blankRow the row of the empty spot
+	 * @return the counts and the empty spot's row packed into a long, BITS bits per count
+	 */
+	private long encode(int[][] counts, int blankRow) {
+		long code = 0;
+		for (int row = 0; row < N; row++) {
+			for (int goalRow = 0; goalRow < N; goalRow++) {
+				code |= (long)counts[row][goalRow] << (BITS * (row * N + goalRow));
+			}
+		}
+		return code | (long)blankRow << (BITS * N * N);
+	}
+
+	/**
+	 * Method: decode
+	 *         The reverse of encode().
+	 * @param code a code
+	 * @param counts array to be filled in with the counts
+	 * @return the row of the empty spot
+	 */
+	private int decode(long code, int[][] counts) {
+		for (int row = 0; row < N; row++) {
+			for (int goalRow = 0; goalRow < N; goalRow++) {
+				counts[row][goalRow] = (int)(code >>> (BITS * (row * N + goalRow))) & ((1 << BITS) - 1);
+			}
+		}
+		return (int)(code >>> (BITS * N * N));
+	}
+
+	/**
+	 * Method: move
+	 * @param code a code
+	 * @param fromRow the row of the block that moves, next to the empty spot's row
+	 * @param toRow the row of the empty spot
+	 * @param goalRow the row where the block that moves belongs
+	 * @return the code after the block moves into the empty spot's row and the empty spot into fromRow
+	 */
+	private long move(long code, int fromRow, int toRow, int goalRow) {
+		code -= 1L << (BITS * (fromRow * N + goalRow));
+		code += 1L << (BITS * (toRow * N + goalRow));
+		return (code & ~(0x3L << (BITS * N * N))) | (long)fromRow << (BITS * N * N);
+	}
+
+	@Override
+	public int dimension() {
+		return N;
+	}
+
+	@Override
+	public int init(long board) {
+		int[][] rows = new int[N][N], columns = new int[N][N];
+		int blank = 0;
+		for (int i = 0; i < N * N; i++) {
+			int block = PackedBoard.blockAt(board, i);
+			if (block == 0) {
+				blank = i;
+				continue;
+			}
+			rows[i / N][(block - 1) / N]++;
+			columns[i % N][(block - 1) % N]++;	//Columns are treated as rows of the transposed board
+		}
+		int vertical = indexOf.get(encode(rows, blank / N), -1);
+		int horizontal = indexOf.get(encode(columns, blank % N), -1);
+		if (vertical < 0 || horizontal < 0) throw new IllegalArgumentException("Not a valid board");
+		return vertical << 16 | horizontal;
+	}
+
+	@Override
+	public int update(int state, long board, int blank, int target) {
+		int block = PackedBoard.blockAt(board, target) - 1;	//The block's goal index
+		if (blank / N != target / N) {	//Vertical move: the empty spot moves down if the block was below it
+			int down = (target > blank) ? 1 : 0;
+			int vertical = transitions[((state >>> 16) * 2 + down) * N + block / N];
+			return vertical << 16 | (state & 0xFFFF);
+		}
+		int down = (target > blank) ? 1 : 0;	//Horizontal move: "down" in the transposed board means right
+		int horizontal = transitions[((state & 0xFFFF) * 2 + down) * N + block % N];
+		return (state & 0xFFFF0000) | horizontal;
+	}
+
+	@Override
+	public int value(int state) {
+		return distance[state >>> 16] + distance[state & 0xFFFF];
+	}
+}
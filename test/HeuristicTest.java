@@ -0,0 +1,175 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Class: HeuristicTest.java
+ *
+ *  This Class - Checks that every heuristic is admissible, that its incremental update() agrees with init() from
+ *  scratch, and that the tables of the pattern database and the walking distance come back the same after being
+ *  saved to a file and loaded.
+ */
+public class HeuristicTest {
+	private static final int WALKS = 200;		//Random boards per check
+	private static final int STEPS = 60;		//Random moves of the empty spot per board
+
+	/**
+	 * Method: heuristics
+	 * @return one of each heuristic for the given dimension
+	 */
+	private static Heuristic[] heuristics(int N) {
+		if (N == 3) {	//The only dimension with a pattern database small enough to build for each test
+			return new Heuristic[] {new ManhattanHeuristic(N), new LinearConflictHeuristic(N), new WalkingDistance(N),
+					new PatternDatabase("4-4")};
+		}
+		return new Heuristic[] {new ManhattanHeuristic(N), new LinearConflictHeuristic(N), new WalkingDistance(N)};
+	}
+
+	/**
+	 * Method: updateMatchesInit
+	 *         Walks the empty spot at random, updating the heuristic's state move by move, and compares it with the
+	 *         state computed from scratch for the same board.
+	 */
+	@Test
+	public void updateMatchesInit() {
+		Random random = new Random(1);
+		for (int N = 3; N <= 4; N++) {
+			for (Heuristic heuristic : heuristics(N)) {
+				String name = heuristic.getClass().getSimpleName() + " " + N + " x " + N;
+				for (int walk = 0; walk < WALKS; walk++) {
+					long board = PackedBoard.goal(N);
+					int blank = PackedBoard.blankIndex(board, N);
+					int state = heuristic.init(board);
+					assertEquals(name + ": goal", 0, heuristic.value(state));
+					for (int step = 0; step < STEPS; step++) {
+						int target = Board.blankTarget(blank, random.nextInt(4), N);
+						if (target < 0) continue;
+						state = heuristic.update(state, board, blank, target);
+						board = PackedBoard.move(board, blank, target);
+						blank = target;
+						assertEquals(name, heuristic.value(heuristic.init(board)), heuristic.value(state));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method: admissible
+	 *         No heuristic may estimate more moves than the shortest solution has.
+	 */
+	@Test
+	public void admissible() {
+		Random random = new Random(2);
+		for (int N = 3; N <= 4; N++) {
+			for (int walk = 0; walk < WALKS / 4; walk++) {
+				Board board = Puzzles.randomWalk(N, (N == 3) ? 100 : 30, random);
+				int moves = new Solver(board, Solver.Algorithm.IDASTAR).moves();
+				for (Heuristic heuristic : heuristics(N)) {
+					int estimate = heuristic.value(heuristic.init(board.key()));
+					assertTrue(heuristic.getClass().getSimpleName() + " estimates " + estimate + " > " + moves + " for\n"
+							+ board, estimate <= moves);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method: patternDatabaseRoundTrip
+	 */
+	@Test
+	public void patternDatabaseRoundTrip() throws IOException {
+		PatternDatabase built = new PatternDatabase("4-4");
+		Path file = Files.createTempFile("pattern-database", ".pdb");
+		try {
+			built.save(file);
+			assertSameEstimates(built, PatternDatabase.load(file), 3);	//custom method
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Method: walkingDistanceRoundTrip
+	 */
+	@Test
+	public void walkingDistanceRoundTrip() throws IOException {
+		for (int N = 3; N <= 4; N++) {
+			WalkingDistance built = new WalkingDistance(N);
+			Path file = Files.createTempFile("walking-distance", ".wd");
+			try {
+				built.save(file);
+				assertSameEstimates(built, WalkingDistance.load(file), N);
+			}
+			finally {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	/**
+	 * Method: truncatedFilesAreRejected
+	 *         A file cut short must fail to load with an IOException, not give wrong estimates.
+	 */
+	@Test
+	public void truncatedFilesAreRejected() throws IOException {
+		Path file = Files.createTempFile("tables", ".tmp");
+		try {
+			new PatternDatabase("4-4").save(file);
+			truncate(file);		//custom method
+			try {
+				PatternDatabase.load(file);
+				fail("A truncated pattern database was loaded");
+			}
+			catch (IOException expected) { }
+
+			new WalkingDistance(3).save(file);
+			truncate(file);
+			try {
+				WalkingDistance.load(file);
+				fail("A truncated walking distance file was loaded");
+			}
+			catch (IOException expected) { }
+
+			Files.write(file, new byte[64]);	//Not a file of tables at all
+			try {
+				PatternDatabase.load(file);
+				fail("A file of zeros was loaded as a pattern database");
+			}
+			catch (IOException expected) { }
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Method: assertSameEstimates
+	 *         Checks that two heuristics give the same estimate for the goal and for many random boards.
+	 */
+	private static void assertSameEstimates(Heuristic expected, Heuristic actual, int N) {
+		assertEquals(expected.dimension(), actual.dimension());
+		Random random = new Random(3);
+		for (int walk = 0; walk < WALKS; walk++) {
+			long board = Puzzles.randomWalk(N, STEPS, random).key();
+			assertEquals(expected.value(expected.init(board)), actual.value(actual.init(board)));
+		}
+	}
+
+	/**
+	 * Method: truncate
+	 *         Cuts the last byte off the given file.
+	 */
+	private static void truncate(Path file) throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+	}
+}
@@ -0,0 +1,164 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/** Class: ParallelSearchTest.java
+ *
+ *  This Class - Checks the multi-threaded searches, HDA* and parallel IDA*, with several thread counts whatever the
+ *  no. of processors: that they find the same min. no. of moves as the original Solver, and that they stop cleanly
+ *  when their budget runs out, when they are cancelled, and when the thread that runs them is interrupted.
+ */
+public class ParallelSearchTest {
+	private static final int MAX_MOVES = 36;		//Keeps the test short on a single processor
+	private static final String HARD = "puzzle4x4-80.txt";	//Takes far longer than the budgets below
+
+	/**
+	 * Method: hdaStarFindsTheMinimum
+	 */
+	@Test
+	public void hdaStarFindsTheMinimum() {
+		for (int threads = 1; threads <= 4; threads++) {
+			for (String file : Puzzles.solvable(PackedBoard.MAX_DIMENSION, MAX_MOVES)) {
+				Board initial = Puzzles.read(file);
+				byte[] moves = new HashDistributedAStar(initial, new ManhattanHeuristic(initial.dimension()), threads).solve();
+				assertSolution(file + " HDA* x" + threads, initial, moves, Puzzles.optimalMoves(file));	//custom method
+			}
+		}
+	}
+
+	/**
+	 * Method: parallelIDAStarFindsTheMinimum
+	 *         Also with split depths below and above the solution's length, so that some puzzles are solved before
+	 *         the search is split into tasks.
+	 */
+	@Test
+	public void parallelIDAStarFindsTheMinimum() {
+		for (int threads = 1; threads <= 4; threads++) {
+			for (int splitDepth : new int[] {1, ParallelIDAStar.DEFAULT_SPLIT_DEPTH, 20}) {
+				for (String file : Puzzles.solvable(PackedBoard.MAX_DIMENSION, MAX_MOVES)) {
+					Board initial = Puzzles.read(file);
+					byte[] moves = new ParallelIDAStar(initial, new ManhattanHeuristic(initial.dimension()), threads,
+							splitDepth).solve();
+					assertSolution(file + " parallel IDA* x" + threads + " split " + splitDepth, initial, moves,
+							Puzzles.optimalMoves(file));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method: nodeBudgetStopsEveryWorker
+	 */
+	@Test(timeout = 30000)
+	public void nodeBudgetStopsEveryWorker() {
+		Board initial = Puzzles.read(HARD);
+		for (int t = 1; t <= 4; t++) {
+			int threads = t;
+			assertStopped(SearchBudget.Reason.NODES, () -> new HashDistributedAStar(initial,	//custom method
+					new ManhattanHeuristic(4), threads, new SearchBudget(0, 100000)).solve());
+			assertStopped(SearchBudget.Reason.NODES, () -> new ParallelIDAStar(initial, new ManhattanHeuristic(4),
+					threads, ParallelIDAStar.DEFAULT_SPLIT_DEPTH, new SearchBudget(0, 100000)).solve());
+		}
+	}
+
+	/**
+	 * Method: cancelStopsEveryWorker
+	 *         Cancelling the budget from another thread, as SolverServer does at a request's timeout.
+	 */
+	@Test(timeout = 30000)
+	public void cancelStopsEveryWorker() throws InterruptedException {
+		Board initial = Puzzles.read(HARD);
+		SearchBudget hdaBudget = new SearchBudget();
+		SearchBudget idaBudget = new SearchBudget();
+		cancelLater(hdaBudget, idaBudget);		//custom method
+		assertStopped(SearchBudget.Reason.CANCELLED,
+				() -> new HashDistributedAStar(initial, new ManhattanHeuristic(4), 3, hdaBudget).solve());
+		assertStopped(SearchBudget.Reason.CANCELLED, () -> new ParallelIDAStar(initial, new ManhattanHeuristic(4), 3,
+				ParallelIDAStar.DEFAULT_SPLIT_DEPTH, idaBudget).solve());
+	}
+
+	/**
+	 * Method: interruptStopsHDAStar
+	 *         An interrupted solve() throws, keeps the interrupt, and returns only once every worker has stopped.
+	 */
+	@Test(timeout = 30000)
+	public void interruptStopsHDAStar() throws InterruptedException {
+		Board initial = Puzzles.read(HARD);
+		HashDistributedAStar hdaStar = new HashDistributedAStar(initial, new ManhattanHeuristic(4), 3);
+		AtomicReference<Throwable> thrown = new AtomicReference<Throwable>();
+		AtomicReference<Boolean> isInterrupted = new AtomicReference<Boolean>();
+		Thread searcher = new Thread(() -> {
+			try {
+				hdaStar.solve();
+			}
+			catch (Throwable e) {
+				thrown.set(e);
+				isInterrupted.set(Thread.currentThread().isInterrupted());
+			}
+		});
+		searcher.start();
+		Thread.sleep(200);
+		searcher.interrupt();
+		searcher.join();
+
+		assertTrue("solve() didn't throw: " + thrown.get(), thrown.get() instanceof IllegalStateException);
+		assertTrue("The interrupt was lost", isInterrupted.get());
+		for (StackTraceElement[] stack : Thread.getAllStackTraces().values()) {
+			for (StackTraceElement frame : stack) {
+				assertTrue("A worker is still searching", !frame.getClassName().startsWith("HashDistributedAStar$Worker"));
+			}
+		}
+	}
+
+	/**
+	 * Inner interface. A search to run.
+	 */
+	private interface Search {
+		byte[] solve();
+	}
+
+	/**
+	 * Method: assertStopped
+	 *         Checks that the search throws a BudgetExceededException for the given reason.
+	 */
+	private static void assertStopped(SearchBudget.Reason reason, Search search) {
+		try {
+			search.solve();
+			fail("The search was not stopped");
+		}
+		catch (BudgetExceededException e) {
+			assertEquals(reason, e.reason());
+		}
+	}
+
+	/**
+	 * Method: assertSolution
+	 *         Checks that the moves have the given length and take the board to the goal.
+	 */
+	private static void assertSolution(String message, Board initial, byte[] moves, int optimalMoves) {
+		assertEquals(message, optimalMoves, moves.length);
+		Puzzles.assertSolves(message, initial, new SolutionPath(initial, moves).moveString());
+	}
+
+	/**
+	 * Method: cancelLater
+	 *         Cancels the given budgets 200 milliseconds from now, on another thread.
+	 */
+	private static void cancelLater(SearchBudget... budgets) {
+		Thread canceller = new Thread(() -> {
+			try {
+				Thread.sleep(200);
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+			for (SearchBudget budget : budgets) budget.cancel();
+		});
+		canceller.setDaemon(true);
+		canceller.start();
+	}
+}
@@ -0,0 +1,149 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/** Class: PuzzleReaderTest.java
+ *
+ *  This Class - Checks that PuzzleReader reads the puzzle files the same way as In, on which the original Solver
+ *  read them, and that it rejects every kind of bad input with an IllegalArgumentException.
+ */
+public class PuzzleReaderTest {
+
+	/**
+	 * Method: readsLikeIn
+	 */
+	@Test
+	public void readsLikeIn() throws IOException {
+		File[] files = new File(".").listFiles((directory, name) -> name.startsWith("puzzle") && name.endsWith(".txt"));
+		assertTrue("No puzzle files found. Run the tests from the root directory.", files.length > 50);
+		for (File file : files) {
+			assertEquals(file.getName(), readWithIn(file), PuzzleReader.read(file.toPath()));	//custom method
+		}
+	}
+
+	/**
+	 * Method: badInputIsRejected
+	 */
+	@Test
+	public void badInputIsRejected() {
+		String[] inputs = {
+			"",					//No dimension
+			"1 0",				//Dimension too small
+			"182",				//Dimension too large for Board
+			"2 1 2 0",			//Too few blocks
+			"2 1 2 0 3 4",		//Too many blocks
+			"2 1 2 0 0",		//Duplicate block
+			"2 1 2 0 4",		//Block out of range
+			"2 1 2 x 3",		//Not a number
+			"2 1 2 -0 3",		//Not a non-negative number
+			"2 1 2 0 3333333333",	//Too large a number
+		};
+		for (String input : inputs) {
+			try {
+				PuzzleReader.parse(input);
+				fail("Accepted \"" + input + "\"");
+			}
+			catch (IllegalArgumentException expected) { }
+		}
+	}
+
+	/**
+	 * Method: largestBoard
+	 *         The largest board that Board can hold is read correctly, the empty spot included.
+	 */
+	@Test
+	public void largestBoard() {
+		int N = Board.MAX_DIMENSION;
+		Board board = PuzzleReader.parse(text(Puzzles.goal(N)));	//custom method
+		assertEquals(Puzzles.goal(N), board);
+		assertEquals(N * N - 1, board.blankIndex());
+	}
+
+	/**
+	 * Method: largeFileIsMapped
+	 *         A file too large to be read into the reusable buffer is memory-mapped instead, with the same result.
+	 */
+	@Test
+	public void largeFileIsMapped() throws IOException {
+		Board goal = Puzzles.goal(150);
+		Path file = Files.createTempFile("puzzle", ".txt");
+		try {
+			Files.write(file, text(goal).getBytes(StandardCharsets.US_ASCII));
+			assertTrue(Files.size(file) >= 1 << 16);
+			assertEquals(goal, PuzzleReader.read(file));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Method: buffersAreReusedSafely
+	 *         Puzzles of different dimensions read one after another, and on several threads at once, must not see
+	 *         each other's blocks.
+	 */
+	@Test
+	public void buffersAreReusedSafely() throws Exception {
+		Board expected = readWithIn(new File("puzzle04.txt"));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (int t = 0; t < 4; t++) {
+				long seed = t;
+				results.add(executor.submit(() -> {
+					Random random = new Random(seed);
+					for (int i = 0; i < 500; i++) {
+						Board board = Puzzles.randomWalk(2 + random.nextInt(5), 100, random);
+						assertEquals(board, PuzzleReader.parse(text(board)));
+						assertEquals(expected, PuzzleReader.read(Paths.get("puzzle04.txt")));
+					}
+					return null;
+				}));
+			}
+			for (Future<Void> result : results) result.get();
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Method: readWithIn
+	 * @return the board in the given puzzle file, read with In the way the original Solver read it
+	 */
+	private static Board readWithIn(File file) {
+		In in = new In(file);
+		int N = in.readInt();
+		int[][] blocks = new int[N][N];
+		for (int i = 0; i < N; i++) {
+			for (int j = 0; j < N; j++) blocks[i][j] = in.readInt();
+		}
+		return new Board(blocks);
+	}
+
+	/**
+	 * Method: text
+	 * @return the board in the format of the puzzle files
+	 */
+	private static String text(Board board) {
+		int N = board.dimension();
+		StringBuilder sb = new StringBuilder().append(N).append('\n');
+		for (int i = 0; i < N * N; i++) sb.append((int)board.blockAt(i)).append((i % N == N - 1) ? '\n' : ' ');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,189 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Class: PuzzleStreamTest.java
+ *
+ *  This Class - Checks that puzzles written in the binary format come back the same, that both formats skip a bad
+ *  puzzle when the ones after it can still be found, and that a binary file ends at a puzzle that can't be framed.
+ */
+public class PuzzleStreamTest {
+
+	/**
+	 * Method: binaryRoundTrip
+	 *         Boards of every dimension the binary format holds, packed (up to 4 x 4) or a byte per block.
+	 */
+	@Test
+	public void binaryRoundTrip() throws IOException {
+		Random random = new Random(4);
+		List<Board> boards = new ArrayList<Board>();
+		for (int N = 2; N <= 16; N++) {
+			for (int i = 0; i < 20; i++) boards.add(Puzzles.randomWalk(N, 500, random));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PuzzleStream.writeBinary(boards.iterator(), out);
+
+		try (PuzzleStream puzzles = new PuzzleStream(new ByteArrayInputStream(out.toByteArray()))) {
+			for (Board expected : boards) {
+				assertTrue(puzzles.hasNext());
+				assertEquals(expected, puzzles.next());
+			}
+			assertFalse(puzzles.hasNext());
+			assertEquals(boards.size(), puzzles.count());
+		}
+	}
+
+	/**
+	 * Method: textSkipsBadLines
+	 *         Blank lines and comments are skipped; a bad line throws, and the lines after it are still read.
+	 */
+	@Test
+	public void textSkipsBadLines() throws IOException {
+		String text = "# a corpus\n2 1 2 0 3\n\n2 1 2 0 0\n3 1 2 3 4 5 6 7 8 0\r\n";
+		try (PuzzleStream puzzles = stream(text.getBytes(StandardCharsets.US_ASCII))) {	//custom method
+			assertEquals(PuzzleReader.parse("2 1 2 0 3"), puzzles.next());
+			assertEquals(2, puzzles.count());
+			assertRejected(puzzles, "Line 4");		//custom method
+			assertEquals(Puzzles.goal(3), puzzles.next());
+			assertFalse(puzzles.hasNext());
+		}
+	}
+
+	/**
+	 * Method: binarySkipsBadBlocks
+	 *         A binary puzzle with a valid dimension but bad blocks still has a known length, so the puzzles after
+	 *         it can be read.
+	 */
+	@Test
+	public void binarySkipsBadBlocks() throws IOException {
+		byte[] badBlocks = new byte[1 + 25];
+		badBlocks[0] = 5;
+		Arrays.fill(badBlocks, 1, badBlocks.length, (byte)1);
+		try (PuzzleStream puzzles = stream(concat(binary(Puzzles.goal(3)), badBlocks, record(Puzzles.goal(4))))) {
+			assertEquals(Puzzles.goal(3), puzzles.next());
+			assertRejected(puzzles, "Puzzle 2");
+			assertEquals(Puzzles.goal(4), puzzles.next());
+			assertFalse(puzzles.hasNext());
+		}
+	}
+
+	/**
+	 * Method: binaryEndsAtFramingError
+	 *         An unsupported dimension or a truncated puzzle leaves the rest of the file unreadable, so the stream
+	 *         ends there rather than returning garbage.
+	 */
+	@Test
+	public void binaryEndsAtFramingError() throws IOException {
+		byte[] good = record(Puzzles.goal(3));
+		try (PuzzleStream puzzles = stream(concat(binary(Puzzles.goal(3)), new byte[] {99}, good, good))) {
+			assertEquals(Puzzles.goal(3), puzzles.next());
+			assertRejected(puzzles, "Unsupported dimension");
+			assertFalse(puzzles.hasNext());
+		}
+		try (PuzzleStream puzzles = stream(concat(binary(Puzzles.goal(3)), Arrays.copyOf(good, 5)))) {
+			assertEquals(Puzzles.goal(3), puzzles.next());
+			assertRejected(puzzles, "truncated");
+			assertFalse(puzzles.hasNext());
+		}
+	}
+
+	/**
+	 * Method: convertsTextToBinary
+	 *         main() writes the binary file under its own name only once it is complete.
+	 */
+	@Test
+	public void convertsTextToBinary() throws IOException {
+		Path text = Files.createTempFile("corpus", ".txt");
+		Path binary = text.resolveSibling(text.getFileName() + ".pzb");
+		try {
+			Files.write(text, "2 1 2 0 3\n3 1 2 3 4 5 6 7 8 0\n".getBytes(StandardCharsets.US_ASCII));
+			PuzzleStream.main(new String[] {text.toString(), binary.toString()});
+			assertFalse(Files.exists(binary.resolveSibling(binary.getFileName() + ".tmp")));
+			try (PuzzleStream puzzles = PuzzleStream.open(binary.toString())) {
+				assertEquals(PuzzleReader.parse("2 1 2 0 3"), puzzles.next());
+				assertEquals(Puzzles.goal(3), puzzles.next());
+				assertFalse(puzzles.hasNext());
+			}
+
+			Files.write(text, "2 1 2 0 0\n".getBytes(StandardCharsets.US_ASCII));	//A bad puzzle stops the conversion
+			try {
+				PuzzleStream.main(new String[] {text.toString(), binary.toString()});
+				fail("A bad puzzle was converted");
+			}
+			catch (IllegalArgumentException expected) { }
+			assertFalse(Files.exists(binary.resolveSibling(binary.getFileName() + ".tmp")));
+			try (PuzzleStream puzzles = PuzzleStream.open(binary.toString())) {	//The old file is left alone
+				assertEquals(PuzzleReader.parse("2 1 2 0 3"), puzzles.next());
+			}
+		}
+		finally {
+			Files.deleteIfExists(text);
+			Files.deleteIfExists(binary);
+		}
+	}
+
+	/**
+	 * Method: assertRejected
+	 *         Checks that the next puzzle is rejected with a message that contains the given text.
+	 */
+	private static void assertRejected(PuzzleStream puzzles, String message) {
+		try {
+			puzzles.next();
+			fail("A bad puzzle was read");
+		}
+		catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+	/**
+	 * Method: stream
+	 * @return a stream of the puzzles in the given bytes
+	 */
+	private static PuzzleStream stream(byte[] bytes) throws IOException {
+		return new PuzzleStream(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Method: binary
+	 * @return the given boards in the binary format, magic included
+	 */
+	private static byte[] binary(Board... boards) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PuzzleStream.writeBinary(Arrays.asList(boards).iterator(), out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Method: record
+	 * @return the given board in the binary format, without the magic
+	 */
+	private static byte[] record(Board board) throws IOException {
+		byte[] bytes = binary(board);
+		return Arrays.copyOfRange(bytes, 4, bytes.length);
+	}
+
+	/**
+	 * Method: concat
+	 * @return the given arrays one after another
+	 */
+	private static byte[] concat(byte[]... parts) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] part : parts) out.write(part, 0, part.length);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,130 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Class: Puzzles.java
+ *
+ *  This Class - The puzzles that the tests solve, and the checks they share. The puzzle*.txt files are read from the
+ *  directory that the tests are run from; each puzzleNN.txt has NN as its min. no. of moves, the answer the
+ *  original Solver gives for it.
+ */
+final class Puzzles {
+	private Puzzles() { }	//Not meant to be instantiated
+
+	/**
+	 * Method: read
+	 * @param file a puzzle file
+	 * @return the board in it
+	 */
+	static Board read(String file) {
+		try {
+			return PuzzleReader.read(Paths.get(file));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Method: optimalMoves
+	 * @param file a puzzleNN.txt file
+	 * @return NN, the min. no. of moves of its puzzle
+	 */
+	static int optimalMoves(String file) {
+		return Integer.parseInt(file.substring("puzzle".length(), file.length() - ".txt".length()));
+	}
+
+	/**
+	 * Method: solvable
+	 * @param maxDimension the largest board to include
+	 * @param maxMoves the longest solution to include
+	 * @return the puzzleNN.txt files whose boards and min. no. of moves are no larger than given
+	 */
+	static List<String> solvable(int maxDimension, int maxMoves) {
+		List<String> files = new ArrayList<String>();
+		for (int moves = 0; moves <= Math.min(maxMoves, 50); moves++) {
+			String file = String.format("puzzle%02d.txt", moves);
+			if (read(file).dimension() <= maxDimension) files.add(file);
+		}
+		return files;
+	}
+
+	/**
+	 * Method: unsolvable
+	 * @return the puzzle files whose boards can't be solved
+	 */
+	static List<String> unsolvable() {
+		List<String> files = new ArrayList<String>();
+		for (int i = 1; i <= 3; i++) files.add("puzzle2x2-unsolvable" + i + ".txt");
+		files.add("puzzle3x3-unsolvable.txt");
+		files.add("puzzle3x3-unsolvable1.txt");
+		files.add("puzzle3x3-unsolvable2.txt");
+		files.add("puzzle4x4-unsolvable.txt");
+		return files;
+	}
+
+	/**
+	 * Method: assertSolves
+	 *         Checks that the given moves are legal and take the given board to the goal.
+	 * @param message what to say if they don't
+	 * @param initial the board
+	 * @param moveString the moves, as in Solver.moveString()
+	 */
+	static void assertSolves(String message, Board initial, String moveString) {
+		Board board = initial;
+		for (int i = 0; i < moveString.length(); i++) {
+			int direction = SolutionPath.MOVE_LETTERS.indexOf(moveString.charAt(i));
+			assertTrue(message + ": unknown move " + moveString.charAt(i), direction >= 0);
+			board = board.moveBlank(direction);
+		}
+		assertTrue(message + ": doesn't reach the goal", board.isGoal());
+	}
+
+	/**
+	 * Method: assertOptimal
+	 *         Checks that a solver found a solution with the given no. of moves, and that it works.
+	 * @param message what to say if it didn't
+	 * @param initial the board that was solved
+	 * @param solver the solver
+	 * @param optimalMoves the min. no. of moves
+	 */
+	static void assertOptimal(String message, Board initial, Solver solver, int optimalMoves) {
+		assertTrue(message + ": solvable", solver.isSolvable());
+		assertEquals(message + ": moves", optimalMoves, solver.moves());
+		assertEquals(message + ": move string", optimalMoves, solver.moveString().length());
+		assertSolves(message, initial, solver.moveString());
+	}
+
+	/**
+	 * Method: randomWalk
+	 * @param N the dimension of the board
+	 * @param steps the no. of random moves of the empty spot, starting from the goal
+	 * @param random the source of the moves
+	 * @return the board reached, which is always solvable
+	 */
+	static Board randomWalk(int N, int steps, Random random) {
+		Board board = goal(N);		//custom method
+		for (int i = 0; i < steps; i++) {
+			int direction = random.nextInt(4);
+			if (Board.blankTarget(board.blankIndex(), direction, N) >= 0) board = board.moveBlank(direction);
+		}
+		return board;
+	}
+
+	/**
+	 * Method: goal
+	 * @param N the dimension of the board
+	 * @return the goal board: the blocks 1 to N*N - 1 in order, then the empty spot
+	 */
+	static Board goal(int N) {
+		char[] grid = new char[N * N];
+		for (int i = 0; i < grid.length - 1; i++) grid[i] = (char)(i + 1);
+		return Board.fromGrid(grid);
+	}
+}
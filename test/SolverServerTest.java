@@ -0,0 +1,178 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/** Class: SolverServerTest.java
+ *
+ *  This Class - Checks the replies of SolverServer: that they are written in the order of the requests though the
+ *  requests are solved at the same time, that a search is cancelled at its request's timeout so that its thread is
+ *  free for the next one, and that requests beyond what the threads can take are turned away as BUSY.
+ */
+public class SolverServerTest {
+	private static final String HARD = "puzzle4x4-80.txt";	//Takes far longer than the timeouts below
+
+	/**
+	 * Method: handleReplies
+	 *         A reply of each kind that doesn't depend on the time limit.
+	 */
+	@Test(timeout = 30000)
+	public void handleReplies() {
+		SolverServer server = new SolverServer(Solver.Algorithm.ASTAR, null, 1, 10000);
+		try {
+			Board initial = Puzzles.read("puzzle04.txt");
+			String reply = server.handle(line(initial));	//custom method
+			assertEquals("OK 4 " + new Solver(initial).moveString(), reply);
+			Puzzles.assertSolves(reply, initial, reply.split(" ")[2]);
+			assertEquals("OK 0", server.handle(line(Puzzles.goal(3))));
+			for (String file : Puzzles.unsolvable()) assertEquals(file, "UNSOLVABLE", server.handle(line(Puzzles.read(file))));
+			assertTrue(server.handle("2 1 2 0 0").startsWith("ERROR "));
+			assertNull(server.handle("  "));
+		}
+		finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Method: repliesKeepTheirOrder
+	 *         Requests of very different difficulty, solved on several threads at once, with a blank line (no reply)
+	 *         and a bad line among them. No more are sent than the threads can take, solving or waiting.
+	 */
+	@Test(timeout = 60000)
+	public void repliesKeepTheirOrder() {
+		int threads = 3;
+		List<String> solvable = Puzzles.solvable(PackedBoard.MAX_DIMENSION, 30);
+		List<String> files = solvable.subList(Math.max(0, solvable.size() - 2 * threads), solvable.size());
+		StringBuilder requests = new StringBuilder();
+		for (int i = files.size() - 1; i >= 0; i--) {		//The longest solutions first
+			requests.append(line(Puzzles.read(files.get(i)))).append('\n');
+			if (i == files.size() / 2) requests.append("\n2 1 2 0 4\n");
+		}
+
+		SolverServer server = new SolverServer(Solver.Algorithm.ASTAR, null, threads, 30000);
+		try {
+			String[] replies = serve(server, requests.toString());		//custom method
+			assertEquals(files.size() + 1, replies.length);
+			int reply = 0;
+			for (int i = files.size() - 1; i >= 0; i--) {
+				String[] words = replies[reply++].split(" ");
+				assertEquals(files.get(i), "OK", words[0]);
+				assertEquals(files.get(i), Puzzles.optimalMoves(files.get(i)), Integer.parseInt(words[1]));
+				if (words.length > 2) Puzzles.assertSolves(files.get(i), Puzzles.read(files.get(i)), words[2]);
+				if (i == files.size() / 2) assertTrue(replies[reply++].startsWith("ERROR "));
+			}
+		}
+		finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Method: timeoutFreesTheThread
+	 *         A search that times out is cancelled, so the server's only thread solves the next request in time.
+	 */
+	@Test(timeout = 30000)
+	public void timeoutFreesTheThread() {
+		SolverServer server = new SolverServer(Solver.Algorithm.ASTAR, null, 1, 500);
+		try {
+			long start = System.nanoTime();
+			assertEquals("TIMEOUT", server.handle(line(Puzzles.read(HARD))));
+			assertTrue("The reply came late", System.nanoTime() - start < 2000000000L);
+			assertTrue(server.handle(line(Puzzles.read("puzzle04.txt"))).startsWith("OK 4 "));
+		}
+		finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Method: nodeLimit
+	 */
+	@Test(timeout = 30000)
+	public void nodeLimit() {
+		SolverServer server = new SolverServer(Solver.Algorithm.ASTAR, null, 1, 30000, 10000);
+		try {
+			String[] words = server.handle(line(Puzzles.read(HARD))).split(" ");
+			assertEquals("LIMIT", words[0]);
+			assertTrue(Integer.parseInt(words[1]) > 0);
+			assertTrue(server.handle(line(Puzzles.read("puzzle04.txt"))).startsWith("OK 4 "));
+		}
+		finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Method: busyWhenFull
+	 *         With one thread, one request is solved and one waits; the third is turned away. The one that waits has
+	 *         no time left once the thread is free.
+	 */
+	@Test(timeout = 30000)
+	public void busyWhenFull() {
+		String hard = line(Puzzles.read(HARD));
+		SolverServer server = new SolverServer(Solver.Algorithm.ASTAR, null, 1, 500);
+		try {
+			assertArrayEquals(new String[] {"TIMEOUT", "TIMEOUT", "BUSY"}, serve(server, hard + "\n" + hard + "\n" + hard + "\n"));
+		}
+		finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Method: anytimeReplyIsBounded
+	 *         An ANYTIME search that runs out of time replies with its best solution so far rather than TIMEOUT.
+	 */
+	@Test(timeout = 30000)
+	public void anytimeReplyIsBounded() {
+		Board initial = Puzzles.read(HARD);
+		SolverServer server = new SolverServer(Solver.Algorithm.ANYTIME, null, 1, 2000);
+		try {
+			String reply = server.handle(line(initial));
+			String[] words = reply.split(" ");
+			if (words[0].equals("BOUNDED")) {
+				assertTrue(reply, Double.parseDouble(words[2]) > 1);
+				assertTrue(reply, Integer.parseInt(words[3]) <= Integer.parseInt(words[1]));
+				Puzzles.assertSolves(reply, initial, words[4]);
+			}
+			else {
+				assertEquals(reply, "OK", words[0]);
+				Puzzles.assertSolves(reply, initial, words[2]);
+			}
+		}
+		finally {
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Method: serve
+	 * @return the replies of the server to the given requests, one per line
+	 */
+	private static String[] serve(SolverServer server, String requests) {
+		StringWriter out = new StringWriter();
+		server.serve(new In(new Scanner(requests)), new PrintWriter(out));
+		List<String> replies = new ArrayList<String>();
+		for (String reply : out.toString().split("\\R")) {
+			if (!reply.isEmpty()) replies.add(reply);
+		}
+		return replies.toArray(new String[0]);
+	}
+
+	/**
+	 * Method: line
+	 * @return the board as a request, on a single line
+	 */
+	private static String line(Board board) {
+		return board.toString().trim().replaceAll("\\s+", " ");
+	}
+}
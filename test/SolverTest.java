@@ -0,0 +1,127 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Class: SolverTest.java
+ *
+ *  This Class - Checks every search algorithm and heuristic against the min. no. of moves that the original Solver
+ *  gives for the puzzle files, and the check for unsolvable boards against boards whose solvability is known.
+ */
+public class SolverTest {
+	private static final int MAX_MOVES = 40;	//Puzzles with longer solutions take too long for every algorithm
+
+	/**
+	 * Method: everyAlgorithmFindsTheMinimum
+	 *         Without a budget, every algorithm (ANYTIME included) must find a shortest solution.
+	 */
+	@Test
+	public void everyAlgorithmFindsTheMinimum() {
+		for (Solver.Algorithm algorithm : Solver.Algorithm.values()) {
+			for (String file : Puzzles.solvable(PackedBoard.MAX_DIMENSION, MAX_MOVES)) {
+				Board initial = Puzzles.read(file);
+				Solver solver = new Solver(initial, algorithm);
+				Puzzles.assertOptimal(file + " " + algorithm, initial, solver, Puzzles.optimalMoves(file));
+				assertEquals(file + " " + algorithm + ": bound", 1, solver.suboptimalityBound(), 0);
+			}
+		}
+	}
+
+	/**
+	 * Method: largerBoardsFindTheMinimum
+	 *         Boards larger than 4 x 4 are solved by Solver's own A* whatever the algorithm.
+	 */
+	@Test
+	public void largerBoardsFindTheMinimum() {
+		for (String file : Puzzles.solvable(Board.MAX_DIMENSION, 50)) {
+			Board initial = Puzzles.read(file);
+			if (initial.dimension() <= PackedBoard.MAX_DIMENSION) continue;
+			Puzzles.assertOptimal(file, initial, new Solver(initial), Puzzles.optimalMoves(file));
+		}
+	}
+
+	/**
+	 * Method: everyHeuristicFindsTheMinimum
+	 *         An admissible heuristic must not change the no. of moves, only the work done to find them.
+	 */
+	@Test
+	public void everyHeuristicFindsTheMinimum() throws IOException {
+		for (String name : new String[] {"MANHATTAN", "LINEAR", "WALKING"}) {
+			for (String file : Puzzles.solvable(PackedBoard.MAX_DIMENSION, MAX_MOVES)) {
+				Board initial = Puzzles.read(file);
+				Heuristic heuristic = Solver.heuristicFor(name, initial.dimension());
+				for (Solver.Algorithm algorithm : new Solver.Algorithm[] {Solver.Algorithm.ASTAR, Solver.Algorithm.IDASTAR}) {
+					Puzzles.assertOptimal(file + " " + algorithm + " " + name, initial,
+							new Solver(initial, algorithm, heuristic), Puzzles.optimalMoves(file));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method: patternDatabaseFindsTheMinimum
+	 *         The 4-4 pattern database of the 3 x 3 boards is built in memory, so no file is needed.
+	 */
+	@Test
+	public void patternDatabaseFindsTheMinimum() {
+		Heuristic heuristic = new PatternDatabase("4-4");
+		for (String file : Puzzles.solvable(3, 50)) {
+			Board initial = Puzzles.read(file);
+			if (initial.dimension() != 3) continue;
+			Puzzles.assertOptimal(file, initial, new Solver(initial, Solver.Algorithm.IDASTAR, heuristic),
+					Puzzles.optimalMoves(file));
+		}
+	}
+
+	/**
+	 * Method: unsolvableBoardsAreRecognized
+	 *         Every algorithm must report the unsolvable puzzle files as such, without a solution.
+	 */
+	@Test
+	public void unsolvableBoardsAreRecognized() {
+		for (Solver.Algorithm algorithm : Solver.Algorithm.values()) {
+			for (String file : Puzzles.unsolvable()) {
+				Solver solver = new Solver(Puzzles.read(file), algorithm);
+				assertFalse(file + " " + algorithm, solver.isSolvable());
+				assertEquals(file + " " + algorithm, -1, solver.moves());
+				assertNull(file + " " + algorithm, solver.solution());
+			}
+		}
+	}
+
+	/**
+	 * Method: parityMatchesSwappedBlocks
+	 *         A board reached from the goal by moving the empty spot is solvable; swapping two of its blocks makes it
+	 *         unsolvable, since that changes the parity of the permutation but not the empty spot's row.
+	 */
+	@Test
+	public void parityMatchesSwappedBlocks() {
+		Random random = new Random(42);
+		for (int N = 2; N <= 7; N++) {
+			for (int i = 0; i < 50; i++) {
+				Board board = Puzzles.randomWalk(N, 200, random);
+				assertTrue(N + " x " + N + " random walk:\n" + board, board.isSolvable());
+				assertFalse(N + " x " + N + " swapped:\n" + board.twin(), board.twin().isSolvable());
+			}
+		}
+	}
+
+	/**
+	 * Method: goalTakesNoMoves
+	 */
+	@Test
+	public void goalTakesNoMoves() {
+		for (Solver.Algorithm algorithm : Solver.Algorithm.values()) {
+			for (int N = 2; N <= 5; N++) {
+				Solver solver = new Solver(Puzzles.goal(N), algorithm);
+				assertEquals(N + " x " + N + " " + algorithm, 0, solver.moves());
+				assertEquals(N + " x " + N + " " + algorithm, "", solver.moveString());
+			}
+		}
+	}
+}